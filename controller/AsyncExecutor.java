@@ -0,0 +1,64 @@
+package controller;
+
+import model.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// Runs controller calls off the JavaFX Application Thread. Each call gets its own virtual
+// thread, and a semaphore sized to the connection pool keeps the number of calls talking to
+// the database at once within what the pool can serve; the rest wait cheaply for a permit.
+public final class AsyncExecutor {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Semaphore PERMITS = new Semaphore(DatabaseConnection.getMaxPoolSize(), true);
+
+    // A database call that returns a value
+    @FunctionalInterface
+    public interface SqlTask<T> {
+        T call() throws SQLException;
+    }
+
+    // A database call without a result
+    @FunctionalInterface
+    public interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    private AsyncExecutor() {
+    }
+
+    // Run the task in the background; a SQLException completes the future exceptionally
+    public static <T> CompletableFuture<T> supply(SqlTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                PERMITS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return task.call();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            } finally {
+                PERMITS.release();
+            }
+        }, EXECUTOR);
+    }
+
+    public static CompletableFuture<Void> run(SqlAction action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // The underlying failure of a completed future, without the CompletionException wrapper
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
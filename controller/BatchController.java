@@ -1,10 +1,22 @@
 package controller;
 
 import model.Batch;
+import model.BatchExpiryIndex;
+import model.BatchRecord;
+import model.ExpirySweeper;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class BatchController {
+    // Expiry dates of every batch with stock left, shared by every view and kept current by batch events
+    private static final BatchExpiryIndex EXPIRY_INDEX = new BatchExpiryIndex();
+    private static final ExpirySweeper EXPIRY_SWEEPER = new ExpirySweeper(EXPIRY_INDEX);
+
 // Add a new batch
     public void addBatch(Batch batch) throws SQLException {
         batch.save();
@@ -15,6 +27,34 @@ public class BatchController {
         batch.update();
     }
 
+    // Apply changes to the latest copy of a batch, retrying if it is updated concurrently
+    public Batch updateBatch(int batch_id, Consumer<Batch> changes) throws SQLException {
+        return OptimisticRetry.run(() -> Batch.fetchById(batch_id), changes, Batch::update);
+    }
+
+    // Fetch a single batch, or null if it does not exist
+    public Batch fetchBatch(int batch_id) throws SQLException {
+        return Batch.fetchById(batch_id);
+    }
+
+    // Add many batches in JDBC batches and return their generated IDs
+    public List<Integer> addBatches(Collection<Batch> batches) throws SQLException {
+        return Batch.saveAll(batches);
+    }
+
+    public List<Integer> addBatches(Collection<Batch> batches, int chunkSize) throws SQLException {
+        return Batch.saveAll(batches, chunkSize);
+    }
+
+    // Update many batches in JDBC batches and return the number of rows updated
+    public int updateBatches(Collection<Batch> batches) throws SQLException {
+        return Batch.updateAll(batches);
+    }
+
+    public int updateBatches(Collection<Batch> batches, int chunkSize) throws SQLException {
+        return Batch.updateAll(batches, chunkSize);
+    }
+
    public void deleteBatch(int batch_id) throws SQLException {
         Batch batch = new Batch(batch_id, 0, null, 0); // Temporary Batch object with ID only
         batch.delete();
@@ -30,6 +70,72 @@ public class BatchController {
         return Batch.fetchAll();
     }
 
+    // Reads the expiry dates once and starts announcing expiring and expired batches
+    public void startExpirySweeper() throws SQLException {
+        EXPIRY_INDEX.load();
+        EXPIRY_SWEEPER.start();
+    }
+
+    // Days before its expiry date that a batch is announced as EXPIRING
+    public int getExpiryWarningDays() {
+        return EXPIRY_SWEEPER.getWarningDays();
+    }
+
+    public void watchExpiry(BatchExpiryIndex.Listener listener) {
+        EXPIRY_INDEX.subscribe(listener);
+    }
+
+    public void unwatchExpiry(BatchExpiryIndex.Listener listener) {
+        EXPIRY_INDEX.unsubscribe(listener);
+    }
+
+    // Batches with stock left expiring today or within the given number of days, soonest first
+    public List<Batch> fetchExpiringBatches(int days) throws SQLException {
+        EXPIRY_INDEX.load();
+        return toBatches(EXPIRY_INDEX.expiringWithin(LocalDate.now(), days));
+    }
+
+    // Batches with stock left that are past their expiry date, oldest first
+    public List<Batch> fetchExpiredBatches() throws SQLException {
+        EXPIRY_INDEX.load();
+        return toBatches(EXPIRY_INDEX.expiredAsOf(LocalDate.now()));
+    }
+
+    private static List<Batch> toBatches(List<BatchRecord> records) {
+        List<Batch> batches = new ArrayList<>(records.size());
+        for (BatchRecord record : records) {
+            batches.add(new Batch(record));
+        }
+        return batches;
+    }
+
+    // Asynchronous variants: run on a virtual thread and complete the future with the result
+
+    public CompletableFuture<Void> addBatchAsync(Batch batch) {
+        return AsyncExecutor.run(() -> addBatch(batch));
+    }
+
+    public CompletableFuture<Void> updateBatchAsync(Batch batch) {
+        return AsyncExecutor.run(() -> updateBatch(batch));
+    }
+
+    public CompletableFuture<Void> deleteBatchAsync(int batch_id) {
+        return AsyncExecutor.run(() -> deleteBatch(batch_id));
+    }
+
+    public CompletableFuture<List<Batch>> fetchBatchesByProductAsync(int product_id) {
+        return AsyncExecutor.supply(() -> fetchBatchesByProduct(product_id));
+    }
 
-    
+    public CompletableFuture<List<Batch>> fetchAllBatchesAsync() {
+        return AsyncExecutor.supply(Batch::fetchAll);
+    }
+
+    public CompletableFuture<Void> startExpirySweeperAsync() {
+        return AsyncExecutor.run(this::startExpirySweeper);
+    }
+
+    public CompletableFuture<List<Batch>> fetchExpiringBatchesAsync(int days) {
+        return AsyncExecutor.supply(() -> fetchExpiringBatches(days));
+    }
 }
@@ -1,7 +1,9 @@
 package controller;
 
 import model.Category;
+import model.CategoryRecord;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 import java.util.List;
 
 public class CategoryController {
@@ -20,9 +22,31 @@ public class CategoryController {
         category.delete();
     }
 
-    // Fetch all categories
+    // Fetch all categories (served from the category cache)
     public List<Category> fetchAllCategories() throws SQLException {
-        return Category.fetchAll();
+        return Category.fetchAllCached();
     }
 
+    // Resolve a category ID without a database round trip; null if unknown
+    public CategoryRecord findCategory(int category_id) throws SQLException {
+        return Category.findById(category_id);
+    }
+
+    // Asynchronous variants: run on a virtual thread and complete the future with the result
+
+    public CompletableFuture<Void> addCategoryAsync(Category category) {
+        return AsyncExecutor.run(() -> addCategory(category));
+    }
+
+    public CompletableFuture<Void> updateCategoryAsync(Category category) {
+        return AsyncExecutor.run(() -> updateCategory(category));
+    }
+
+    public CompletableFuture<Void> deleteCategoryAsync(Category category) {
+        return AsyncExecutor.run(() -> deleteCategory(category));
+    }
+
+    public CompletableFuture<List<Category>> fetchAllCategoriesAsync() {
+        return AsyncExecutor.supply(this::fetchAllCategories);
+    }
 }
@@ -0,0 +1,33 @@
+package controller;
+
+import model.DataExporter;
+import model.ExportStats;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+public class ExportController {
+    private static final Logger LOG = Logger.getLogger(ExportController.class.getName());
+
+    // Dump the product catalog to CSV (gzip-compressed when gzip is true)
+    public ExportStats exportProducts(Path file, boolean gzip) throws SQLException, IOException {
+        return report(DataExporter.exportProductsCsv(file, gzip));
+    }
+
+    // Dump the purchase history to CSV (gzip-compressed when gzip is true)
+    public ExportStats exportPurchases(Path file, boolean gzip) throws SQLException, IOException {
+        return report(DataExporter.exportPurchasesCsv(file, gzip));
+    }
+
+    // Dump the purchase history to the compact columnar snapshot format
+    public ExportStats exportPurchasesColumnar(Path file, boolean gzip) throws SQLException, IOException {
+        return report(DataExporter.exportPurchasesColumnar(file, gzip));
+    }
+
+    private ExportStats report(ExportStats stats) {
+        LOG.info(stats.toString());
+        return stats;
+    }
+}
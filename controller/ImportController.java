@@ -0,0 +1,113 @@
+package controller;
+
+import model.DelimitedImporter;
+import model.ImportReport;
+import model.Product;
+import model.PurchaseHistory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.logging.Logger;
+
+public class ImportController {
+    private static final Logger LOG = Logger.getLogger(ImportController.class.getName());
+
+    // Import products from a CSV/TSV file with a header row and the columns
+    // name, category_id, sku, quantity_in_stock, reorder_level, supplier_id, batch_id
+    public ImportReport importProducts(Path file) throws IOException, SQLException {
+        Set<Integer> categoryIds = DelimitedImporter.loadIds("SELECT category_id FROM Categories");
+        Set<Integer> supplierIds = DelimitedImporter.loadIds("SELECT supplier_id FROM Suppliers");
+        Set<Integer> batchIds = DelimitedImporter.loadIds("SELECT batch_id FROM Batches");
+
+        DelimitedImporter<Product> importer = new DelimitedImporter<>(7, fields -> {
+            String name = required(fields[0], "name");
+            int categoryId = reference(fields[1], "category_id", categoryIds);
+            String sku = required(fields[2], "sku");
+            int quantity = nonNegative(fields[3], "quantity_in_stock");
+            int reorderLevel = nonNegative(fields[4], "reorder_level");
+            int supplierId = reference(fields[5], "supplier_id", supplierIds);
+            int batchId = reference(fields[6], "batch_id", batchIds);
+            return new Product(0, name, categoryId, sku, quantity, reorderLevel, supplierId, batchId);
+        }, Product::saveAll);
+
+        ImportReport report = importer.run(file, DelimitedImporter.delimiterFor(file), true);
+        LOG.info(report.toString());
+        return report;
+    }
+
+    // Import purchase history from a CSV/TSV file with a header row and the columns
+    // product_id, supplier_id, purchase_date (YYYY-MM-DD), quantity, cost
+    public ImportReport importPurchases(Path file) throws IOException, SQLException {
+        Set<Integer> productIds = DelimitedImporter.loadIds("SELECT product_id FROM Products");
+        Set<Integer> supplierIds = DelimitedImporter.loadIds("SELECT supplier_id FROM Suppliers");
+
+        DelimitedImporter<PurchaseHistory> importer = new DelimitedImporter<>(5, fields -> {
+            int productId = reference(fields[0], "product_id", productIds);
+            int supplierId = reference(fields[1], "supplier_id", supplierIds);
+            LocalDate purchaseDate = date(fields[2], "purchase_date");
+            int quantity = nonNegative(fields[3], "quantity");
+            BigDecimal cost = amount(fields[4], "cost");
+            return new PurchaseHistory(0, productId, supplierId, purchaseDate, quantity, cost);
+        }, PurchaseHistory::saveAll);
+
+        ImportReport report = importer.run(file, DelimitedImporter.delimiterFor(file), true);
+        LOG.info(report.toString());
+        return report;
+    }
+
+    private static String required(String value, String column) {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(column + " is empty");
+        }
+        return value;
+    }
+
+    private static int integer(String value, String column) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: '" + value + "'");
+        }
+    }
+
+    private static int nonNegative(String value, String column) {
+        int number = integer(value, column);
+        if (number < 0) {
+            throw new IllegalArgumentException(column + " is negative: " + number);
+        }
+        return number;
+    }
+
+    private static int reference(String value, String column, Set<Integer> knownIds) {
+        int id = integer(value, column);
+        if (!knownIds.contains(id)) {
+            throw new IllegalArgumentException(column + " " + id + " does not exist");
+        }
+        return id;
+    }
+
+    // Exact amount with at most 2 decimals, kept as a BigDecimal so it is stored without rounding
+    private static BigDecimal amount(String value, String column) {
+        try {
+            return new BigDecimal(value).setScale(2, RoundingMode.UNNECESSARY);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: '" + value + "'");
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(column + " has more than 2 decimals: '" + value + "'");
+        }
+    }
+
+    private static LocalDate date(String value, String column) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " is not a YYYY-MM-DD date: '" + value + "'");
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package controller;
 
+import model.LowStockAcknowledgements;
+import model.LowStockMonitor;
 import model.Product;
+import model.ProductRecord;
+import model.ReorderItem;
+import model.ReorderQueue;
 import view.LowStockAlertDialog;  // Import the LowStockAlertDialog class
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class LowStockAlertController {
+    // Low-stock state shared by every view, maintained from product change events
+    private static final LowStockMonitor MONITOR = new LowStockMonitor();
+    // Low-stock products ranked by deficit and purchase velocity, fed by MONITOR
+    private static final ReorderQueue REORDER_QUEUE = new ReorderQueue();
 
     private LowStockAlertDialog lowStockAlertDialog; // Instance of LowStockAlertDialog
 
@@ -14,9 +26,80 @@ public class LowStockAlertController {
         this.lowStockAlertDialog = lowStockAlertDialog;
     }
 
-    // Fetch all products below the reorder level
+    // For callers without a dialog; alertLowStock() is not available on this instance
+    public LowStockAlertController() {
+        this(null);
+    }
+
+    // All products below the reorder level, from memory once the monitor has started
     public List<Product> fetchLowStockProducts() throws SQLException {
-        return Product.fetchLowStock(); // Assuming fetchLowStock() returns products with low stock
+        MONITOR.start();
+        List<Product> products = new ArrayList<>();
+        for (ProductRecord record : MONITOR.snapshot()) {
+            products.add(new Product(record));
+        }
+        return products;
+    }
+
+    // Scans Products once for low stock; afterwards the state is kept current by product events
+    public void startLowStockMonitor() throws SQLException {
+        MONITOR.start();
+    }
+
+    // Starts the monitor and ranks its low-stock products for reordering
+    public void startReorderQueue() throws SQLException {
+        REORDER_QUEUE.start(MONITOR);
+    }
+
+    // The n most urgent products to reorder, most urgent first
+    public List<ReorderItem> fetchReorderQueue(int n) throws SQLException {
+        REORDER_QUEUE.start(MONITOR);
+        REORDER_QUEUE.refreshVelocitiesIfStale();
+        return REORDER_QUEUE.top(n);
+    }
+
+    // Run after fresh purchase velocities have changed the rank of every product at once
+    public void watchReorderRanks(Runnable listener) {
+        REORDER_QUEUE.addRankListener(listener);
+    }
+
+    public void unwatchReorderRanks(Runnable listener) {
+        REORDER_QUEUE.removeRankListener(listener);
+    }
+
+    // Urgency of a low-stock product; 0 if it is not in the queue (yet)
+    public double reorderScore(int product_id) {
+        ReorderItem item = REORDER_QUEUE.get(product_id);
+        return item == null ? 0 : item.score();
+    }
+
+    // Subscribe to ENTERED / CHANGED / LEFT events and get the low-stock products they apply to
+    public List<ProductRecord> watchLowStock(LowStockMonitor.Listener listener) throws SQLException {
+        MONITOR.start();
+        return MONITOR.subscribe(listener);
+    }
+
+    public void unwatchLowStock(LowStockMonitor.Listener listener) {
+        MONITOR.unsubscribe(listener);
+    }
+
+    // Reads the stored acknowledgements into memory if that has not happened yet
+    public void loadAcknowledgements() throws SQLException {
+        LowStockAcknowledgements.load();
+    }
+
+    public boolean isAcknowledged(int product_id) {
+        return LowStockAcknowledgements.isAcknowledged(product_id);
+    }
+
+    // Persists that a user has seen this product's low-stock alert
+    public void acknowledge(int product_id) throws SQLException {
+        LowStockAcknowledgements.acknowledge(product_id);
+    }
+
+    // Removes the acknowledgement so the product alerts again
+    public void clearAcknowledgement(int product_id) throws SQLException {
+        LowStockAcknowledgements.clear(product_id);
     }
 
     // Generate low-stock alert message
@@ -25,8 +108,11 @@ public class LowStockAlertController {
             lowStockAlertDialog.showAlert("No low stock products.");
         } else {
             StringBuilder alertMessage = new StringBuilder();
-            
-            for (Product product : lowStockProducts) {
+
+            // Most urgent first
+            List<Product> ranked = new ArrayList<>(lowStockProducts);
+            ranked.sort(Comparator.comparingDouble((Product product) -> reorderScore(product.getProductId())).reversed());
+            for (Product product : ranked) {
                 // Append the product details to the alert message
                 alertMessage.append("Low stock alert for: ")
                             .append(product.getName())
@@ -39,7 +125,21 @@ public class LowStockAlertController {
             lowStockAlertDialog.showAlert(alertMessage.toString());
         }
     }
-}
 
-    
+    // Fetch low-stock products on a virtual thread
+    public CompletableFuture<List<Product>> fetchLowStockProductsAsync() {
+        return AsyncExecutor.supply(this::fetchLowStockProducts);
+    }
+
+    public CompletableFuture<List<ReorderItem>> fetchReorderQueueAsync(int n) {
+        return AsyncExecutor.supply(() -> fetchReorderQueue(n));
+    }
 
+    public CompletableFuture<Void> acknowledgeAsync(int product_id) {
+        return AsyncExecutor.run(() -> acknowledge(product_id));
+    }
+
+    public CompletableFuture<Void> clearAcknowledgementAsync(int product_id) {
+        return AsyncExecutor.run(() -> clearAcknowledgement(product_id));
+    }
+}
@@ -0,0 +1,59 @@
+package controller;
+
+import model.OptimisticLockException;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+// Read-modify-write loop for versioned rows: load the latest copy, apply the changes and
+// write it back, starting over from a fresh copy whenever someone else got there first
+public final class OptimisticRetry {
+    public static final int DEFAULT_ATTEMPTS = 5;
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface Updater<T> {
+        void update(T row) throws SQLException;
+    }
+
+    private OptimisticRetry() {
+    }
+
+    public static <T> T run(Loader<T> loader, Consumer<T> changes, Updater<T> updater) throws SQLException {
+        return run(DEFAULT_ATTEMPTS, loader, changes, updater);
+    }
+
+    public static <T> T run(int maxAttempts, Loader<T> loader, Consumer<T> changes, Updater<T> updater) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            T row = loader.load();
+            if (row == null) {
+                throw new SQLException("The row to update no longer exists.");
+            }
+            changes.accept(row);
+            try {
+                updater.update(row);
+                return row;
+            } catch (OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Short randomised pause so competing writers do not collide again straight away
+    private static void backOff(int attempt) throws SQLException {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 10L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying an update.", e);
+        }
+    }
+}
@@ -1,11 +1,31 @@
 package controller;
 
+import model.PageKey;
+import model.PageSource;
 import model.Product;
+import model.ProductFilter;
+import model.ProductRecord;
+import model.ProductSearchIndex;
+import model.Reservation;
+import model.ReservationService;
+import model.StockAllocation;
+import model.StockAllocator;
 
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class ProductController {
+    // In-memory index over product names and SKUs, shared by every panel and filled on first use
+    private static final ProductSearchIndex SEARCH_INDEX = new ProductSearchIndex();
+    // Picks stock from batches soonest expiry first; shared so its per-product locks cover every caller
+    private static final StockAllocator ALLOCATOR = new StockAllocator();
+    // In-memory stock holds for unconfirmed orders; committed holds go through ALLOCATOR
+    private static final ReservationService RESERVATIONS = new ReservationService(ALLOCATOR);
 
     // Adds a new product
     public void addProduct(Product product) throws SQLException {
@@ -17,6 +37,95 @@ public class ProductController {
         product.update();
     }
 
+    // Applies changes to the latest copy of a product, reloading and retrying if another
+    // user updates it concurrently; returns the product as written
+    public Product updateProduct(int product_id, Consumer<Product> changes) throws SQLException {
+        return OptimisticRetry.run(() -> Product.fetchById(product_id), changes, Product::update);
+    }
+
+    // Retrieves a single product, or null if it does not exist
+    public Product fetchProduct(int product_id) throws SQLException {
+        return Product.fetchById(product_id);
+    }
+
+    // Adds many products in JDBC batches and returns their generated IDs
+    public List<Integer> addProducts(Collection<Product> products) throws SQLException {
+        return Product.saveAll(products);
+    }
+
+    public List<Integer> addProducts(Collection<Product> products, int chunkSize) throws SQLException {
+        return Product.saveAll(products, chunkSize);
+    }
+
+    // Updates many products in JDBC batches and returns the number of rows updated
+    public int updateProducts(Collection<Product> products) throws SQLException {
+        return Product.updateAll(products);
+    }
+
+    public int updateProducts(Collection<Product> products, int chunkSize) throws SQLException {
+        return Product.updateAll(products, chunkSize);
+    }
+
+    // Atomically changes a product's stock by delta; false if unknown or it would go below zero
+    public boolean adjustStock(int product_id, int delta) throws SQLException {
+        return Product.adjustStock(product_id, delta);
+    }
+
+    // Atomically applies several stock deltas (product ID -> delta) in one transaction
+    public void adjustStock(Map<Integer, Integer> deltas) throws SQLException {
+        Product.adjustStock(deltas);
+    }
+
+    // Takes quantity units of a product from its batches, soonest expiry first, and lowers its
+    // stock to match; throws InsufficientStockException if they cannot cover it or if they are
+    // held for other orders
+    public StockAllocation allocateStock(int product_id, int quantity) throws SQLException {
+        return allocateStock(Map.of(product_id, quantity)).get(0);
+    }
+
+    // Allocates every line of an order (product ID -> quantity) in one transaction, all or nothing
+    public List<StockAllocation> allocateStock(Map<Integer, Integer> lines) throws SQLException {
+        RESERVATIONS.start();
+        return RESERVATIONS.allocate(lines);
+    }
+
+    // Reads stock levels and stored holds once and starts expiring and persisting holds
+    public void startReservations() throws SQLException {
+        RESERVATIONS.start();
+    }
+
+    // Writes pending holds to the database and stops the background thread
+    public void stopReservations() {
+        RESERVATIONS.stop();
+    }
+
+    // Holds stock for an unconfirmed order for the default 15 minutes; throws
+    // InsufficientStockException if fewer units are available to promise
+    public Reservation reserveStock(int product_id, int quantity) throws SQLException {
+        return reserveStock(product_id, quantity, ReservationService.DEFAULT_TTL_MS);
+    }
+
+    public Reservation reserveStock(int product_id, int quantity, long ttlMillis) throws SQLException {
+        RESERVATIONS.start();
+        return RESERVATIONS.reserve(product_id, quantity, ttlMillis);
+    }
+
+    // Confirms the order: the held units are allocated from batches and leave stock
+    public StockAllocation commitReservation(String reservation_id) throws SQLException {
+        return RESERVATIONS.commit(reservation_id);
+    }
+
+    // Gives held units back; false if the hold had already expired or been released
+    public boolean releaseReservation(String reservation_id) {
+        return RESERVATIONS.release(reservation_id);
+    }
+
+    // Units on hand minus units held, answered from memory
+    public int availableToPromise(int product_id) throws SQLException {
+        RESERVATIONS.start();
+        return RESERVATIONS.availableToPromise(product_id);
+    }
+
     // Deletes a product by its ID
     public void deleteProduct(int product_id) throws SQLException {
         Product product = new Product(product_id, null, 0, null, 0, 0, 0,0); // Temporary Product object with ID only
@@ -28,5 +137,97 @@ public class ProductController {
         return Product.fetchAll();
     }
 
-    
+    // Retrieves the next page of products after the given product ID (0 for the first page)
+    public List<Product> fetchProductPage(int afterProductId, int limit) throws SQLException {
+        return Product.fetchPage(afterProductId, limit);
+    }
+
+    // Passes every product to the callback without holding the whole catalog in memory
+    public void forEachProduct(Consumer<Product> action) throws SQLException {
+        Product.forEach(action);
+    }
+
+    // Streams the catalog; close the stream (try-with-resources) to release its connection
+    public Stream<Product> streamProducts() throws SQLException {
+        return Product.stream();
+    }
+
+    // Filtered, sorted view of the catalog that tables read a page at a time
+    public PageSource<Product, PageKey> productPages(ProductFilter filter) {
+        return filter;
+    }
+
+    // Reads the catalog into the search index if that has not happened yet
+    public void loadSearchIndex() throws SQLException {
+        SEARCH_INDEX.load();
+    }
+
+    // Products whose SKU or name words start with the query, answered from memory
+    public List<ProductRecord> searchProducts(String query, int limit) throws SQLException {
+        SEARCH_INDEX.load();
+        return SEARCH_INDEX.search(query, limit);
+    }
+
+    // Asynchronous variants: run on a virtual thread and complete the future with the result
+
+    public CompletableFuture<Void> addProductAsync(Product product) {
+        return AsyncExecutor.run(() -> addProduct(product));
+    }
+
+    public CompletableFuture<Void> updateProductAsync(Product product) {
+        return AsyncExecutor.run(() -> updateProduct(product));
+    }
+
+    public CompletableFuture<Void> deleteProductAsync(int product_id) {
+        return AsyncExecutor.run(() -> deleteProduct(product_id));
+    }
+
+    public CompletableFuture<Product> fetchProductAsync(int product_id) {
+        return AsyncExecutor.supply(() -> fetchProduct(product_id));
+    }
+
+    public CompletableFuture<List<Product>> fetchAllProductsAsync() {
+        return AsyncExecutor.supply(this::fetchAllProducts);
+    }
+
+    public CompletableFuture<List<Product>> fetchProductPageAsync(int afterProductId, int limit) {
+        return AsyncExecutor.supply(() -> fetchProductPage(afterProductId, limit));
+    }
+
+    public CompletableFuture<Boolean> adjustStockAsync(int product_id, int delta) {
+        return AsyncExecutor.supply(() -> adjustStock(product_id, delta));
+    }
+
+    public CompletableFuture<StockAllocation> allocateStockAsync(int product_id, int quantity) {
+        return AsyncExecutor.supply(() -> allocateStock(product_id, quantity));
+    }
+
+    public CompletableFuture<List<StockAllocation>> allocateStockAsync(Map<Integer, Integer> lines) {
+        return AsyncExecutor.supply(() -> allocateStock(lines));
+    }
+
+    public CompletableFuture<StockAllocation> commitReservationAsync(String reservation_id) {
+        return AsyncExecutor.supply(() -> commitReservation(reservation_id));
+    }
+
+    public CompletableFuture<Void> loadSearchIndexAsync() {
+        return AsyncExecutor.run(this::loadSearchIndex);
+    }
+
+    // Cancelling the returned future also stops the index scan, so a query the user has already
+    // typed past does not keep a thread busy
+    public CompletableFuture<List<ProductRecord>> searchProductsAsync(String query, int limit) {
+        CompletableFuture<List<ProductRecord>> result = new CompletableFuture<>();
+        AsyncExecutor.supply(() -> {
+            SEARCH_INDEX.load();
+            return SEARCH_INDEX.search(query, limit, result::isCancelled);
+        }).whenComplete((products, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(products);
+            }
+        });
+        return result;
+    }
 }
@@ -1,19 +1,118 @@
 package controller;
 
+import model.PageKey;
+import model.PageSource;
+import model.PurchaseArchiver;
+import model.PurchaseFilter;
 import model.PurchaseHistory;
+import model.PurchaseHistoryRecord;
+import model.PurchaseRollup;
+import model.PurchaseRollups;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.Collection;
 import java.util.List;
 
 public class PurchaseHistoryController {
+    // Adds monthly partitions ahead of time and archives old months to compressed files
+    private static final PurchaseArchiver ARCHIVER = new PurchaseArchiver();
+
     // Add new purchase record
     public void addPurchase(PurchaseHistory purchase) throws SQLException {
         purchase.save();
     }
 
+    // Add many purchase records in JDBC batches and return their generated IDs
+    public List<Integer> addPurchases(Collection<PurchaseHistory> purchases) throws SQLException {
+        return PurchaseHistory.saveAll(purchases);
+    }
+
+    public List<Integer> addPurchases(Collection<PurchaseHistory> purchases, int chunkSize) throws SQLException {
+        return PurchaseHistory.saveAll(purchases, chunkSize);
+    }
+
+    // Update many purchase records in JDBC batches and return the number of rows updated
+    public int updatePurchases(Collection<PurchaseHistory> purchases) throws SQLException {
+        return PurchaseHistory.updateAll(purchases);
+    }
+
+    public int updatePurchases(Collection<PurchaseHistory> purchases, int chunkSize) throws SQLException {
+        return PurchaseHistory.updateAll(purchases, chunkSize);
+    }
+
     // Fetch purchase history
     public List<PurchaseHistory> fetchAllPurchases() throws SQLException {
         return PurchaseHistory.fetchAll();
     }
-}
 
+    // Fetch purchase history as lightweight records for reporting
+    public List<PurchaseHistoryRecord> fetchPurchaseRecords() throws SQLException {
+        return PurchaseHistory.fetchAllRecords();
+    }
+
+    // Filtered, sorted view of the purchase history that tables read a page at a time
+    public PageSource<PurchaseHistory, PageKey> purchasePages(PurchaseFilter filter) {
+        return filter;
+    }
+
+    // Pre-aggregated purchase totals of one dimension per day or month, for periods starting
+    // from..to; dimensionId selects one product, supplier or category, or null for all
+    public List<PurchaseRollup> fetchPurchaseTotals(PurchaseRollups.Period period, PurchaseRollups.Dimension dimension,
+            Integer dimensionId, LocalDate from, LocalDate to) throws SQLException {
+        return PurchaseRollups.fetch(period, dimension, dimensionId, from, to);
+    }
+
+    // Rebuild the purchase totals from the full history, e.g. after installing them or a bulk repair;
+    // returns the number of purchases counted
+    public long backfillPurchaseTotals() throws SQLException {
+        return PurchaseRollups.backfill();
+    }
+
+    // Backfill the purchase totals if the history has purchases but no totals yet, as on the
+    // first start after upgrading; returns the number of purchases counted (0 if nothing to do)
+    public long backfillPurchaseTotalsIfMissing() throws SQLException {
+        return PurchaseRollups.backfillIfMissing();
+    }
+
+    // Starts the daily partition upkeep of the purchase history in the background
+    public void startPurchaseArchiver() {
+        ARCHIVER.start();
+    }
+
+    // Runs the partition upkeep now and returns a summary
+    public String archivePurchases() throws Exception {
+        return ARCHIVER.run();
+    }
+
+    // Asynchronous variants: run on a virtual thread and complete the future with the result
 
+    public CompletableFuture<Void> addPurchaseAsync(PurchaseHistory purchase) {
+        return AsyncExecutor.run(() -> addPurchase(purchase));
+    }
+
+    public CompletableFuture<List<Integer>> addPurchasesAsync(Collection<PurchaseHistory> purchases) {
+        return AsyncExecutor.supply(() -> addPurchases(purchases));
+    }
+
+    public CompletableFuture<List<PurchaseHistory>> fetchAllPurchasesAsync() {
+        return AsyncExecutor.supply(this::fetchAllPurchases);
+    }
+
+    public CompletableFuture<List<PurchaseHistoryRecord>> fetchPurchaseRecordsAsync() {
+        return AsyncExecutor.supply(this::fetchPurchaseRecords);
+    }
+
+    public CompletableFuture<List<PurchaseRollup>> fetchPurchaseTotalsAsync(PurchaseRollups.Period period,
+            PurchaseRollups.Dimension dimension, Integer dimensionId, LocalDate from, LocalDate to) {
+        return AsyncExecutor.supply(() -> fetchPurchaseTotals(period, dimension, dimensionId, from, to));
+    }
+
+    public CompletableFuture<Long> backfillPurchaseTotalsAsync() {
+        return AsyncExecutor.supply(this::backfillPurchaseTotals);
+    }
+
+    public CompletableFuture<Long> backfillPurchaseTotalsIfMissingAsync() {
+        return AsyncExecutor.supply(this::backfillPurchaseTotalsIfMissing);
+    }
+}
@@ -1,8 +1,11 @@
 package controller;
 
 import model.Supplier;
+import model.SupplierRecord;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class SupplierController {
     // Add new supplier
@@ -15,14 +18,46 @@ public class SupplierController {
         supplier.update();
     }
 
+    // Apply changes to the latest copy of a supplier, retrying if it is updated concurrently
+    public Supplier updateSupplier(int supplier_id, Consumer<Supplier> changes) throws SQLException {
+        return OptimisticRetry.run(() -> Supplier.fetchById(supplier_id), changes, Supplier::update);
+    }
+
+    // Fetch a single supplier, or null if it does not exist
+    public Supplier fetchSupplier(int supplier_id) throws SQLException {
+        return Supplier.fetchById(supplier_id);
+    }
+
     // Delete supplier
     public void deleteSupplier(Supplier supplier) throws SQLException {
         supplier.delete();
     }
 
-    // Fetch all suppliers
+    // Fetch all suppliers (served from the supplier cache)
     public List<Supplier> fetchAllSuppliers() throws SQLException {
-        return Supplier.fetchAll();
+        return Supplier.fetchAllCached();
+    }
+
+    // Resolve a supplier ID without a database round trip; null if unknown
+    public SupplierRecord findSupplier(int supplier_id) throws SQLException {
+        return Supplier.findById(supplier_id);
+    }
+
+    // Asynchronous variants: run on a virtual thread and complete the future with the result
+
+    public CompletableFuture<Void> addSupplierAsync(Supplier supplier) {
+        return AsyncExecutor.run(() -> addSupplier(supplier));
+    }
+
+    public CompletableFuture<Void> updateSupplierAsync(Supplier supplier) {
+        return AsyncExecutor.run(() -> updateSupplier(supplier));
     }
 
+    public CompletableFuture<Void> deleteSupplierAsync(Supplier supplier) {
+        return AsyncExecutor.run(() -> deleteSupplier(supplier));
+    }
+
+    public CompletableFuture<List<Supplier>> fetchAllSuppliersAsync() {
+        return AsyncExecutor.supply(this::fetchAllSuppliers);
+    }
 }
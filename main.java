@@ -1,4 +1,5 @@
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Tab;
@@ -11,12 +12,47 @@ import view.SupplierPanel;
 import view.PurchaseHistoryPanel;
 import view.BatchPanel;
 import view.LowStockAlertDialog;
-
-import java.sql.SQLException;
+import view.LazyTabLoader;
+import view.LowStockNotifier;
+import model.DatabaseConnection;
+import model.SchemaMigrator;
+import controller.AsyncExecutor;
+import controller.BatchController;
+import controller.CategoryController;
+import controller.ProductController;
+import controller.PurchaseHistoryController;
+import controller.SupplierController;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class main extends Application {
+    private static final Logger LOG = Logger.getLogger(main.class.getName());
+    private Exception migrationError;
+
+    // Bring the schema up to date before any panel reads from it; runs before the window is built
+    @Override
+    public void init() {
+        try {
+            SchemaMigrator.migrate();
+        } catch (Exception e) {
+            migrationError = e;
+        }
+    }
+
     @Override
     public void start(Stage primaryStage) {
+        long startNanos = System.nanoTime();
+
+        if (migrationError != null) {
+            showAlert("Database Error", "Failed to update the database schema: " + migrationError.getMessage());
+            Platform.exit();
+            return;
+        }
+
+        // Start warming up the connection pool before the panels ask for data
+        DatabaseConnection.getPool();
+
         BorderPane root = new BorderPane();
 
         // Create a TabPane for navigation
@@ -36,17 +72,19 @@ public class main extends Application {
         Tab lowStockAlertTab = new Tab("Low Stock Alert");
         lowStockAlertTab.setClosable(false);
 
-        // Load the panels for each tab
-        loadProductPanel(productTab);
-        loadCategoryPanel(categoryTab);
-        loadSupplierPanel(supplierTab);
-        loadPurchaseHistoryPanel(purchaseHistoryTab);
-        loadBatchPanel(batchTab);
-        loadLowStockAlert(lowStockAlertTab);
-
         // Add tabs to the TabPane
         tabPane.getTabs().addAll(productTab, categoryTab, supplierTab, purchaseHistoryTab, batchTab, lowStockAlertTab);
 
+        // Each panel is built the first time its tab is opened, once its data has been read in the
+        // background; the paged tables and the low-stock list read theirs after they are shown
+        LazyTabLoader tabLoader = new LazyTabLoader(startNanos, this::showAlert);
+        tabLoader.register(productTab, "Product Panel", ProductPanel::new);
+        tabLoader.register(categoryTab, "Category Panel", new CategoryController()::fetchAllCategories, CategoryPanel::new);
+        tabLoader.register(supplierTab, "Supplier Panel", new SupplierController()::fetchAllSuppliers, SupplierPanel::new);
+        tabLoader.register(purchaseHistoryTab, "Purchase History Panel", PurchaseHistoryPanel::new);
+        tabLoader.register(batchTab, "Batch Panel", () -> new BatchController().fetchBatchesByProduct(0), BatchPanel::new);
+        tabLoader.register(lowStockAlertTab, "Low Stock Alert", LowStockAlertDialog::new);
+
         // Set the TabPane as the center component of the BorderPane
         root.setCenter(tabPane);
 
@@ -57,60 +95,35 @@ public class main extends Application {
         primaryStage.setTitle("Inventory Management System");
         primaryStage.setScene(scene);
         primaryStage.show();
+        LOG.info(String.format("Window shown in %d ms", (System.nanoTime() - startNanos) / 1_000_000));
+
+        // Low-stock products are announced in one non-modal toast rather than a dialog each
+        new LowStockNotifier(primaryStage).start();
+
+        // Index batch expiry dates and start announcing expiring and expired batches
+        new BatchController().startExpirySweeperAsync().whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOG.log(Level.WARNING, "Batch expiry sweeper unavailable", AsyncExecutor.unwrap(error));
+            }
+        });
+
+        // Monthly partitions of the purchase history are added and old months archived daily
+        PurchaseHistoryController purchaseHistoryController = new PurchaseHistoryController();
+        purchaseHistoryController.startPurchaseArchiver();
+
+        // Purchases recorded before the purchase totals existed are counted into them once
+        purchaseHistoryController.backfillPurchaseTotalsIfMissingAsync().whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOG.log(Level.WARNING, "Backfilling purchase totals failed", AsyncExecutor.unwrap(error));
+            }
+        });
     }
 
-    private void loadProductPanel(Tab productTab) {
-        try {
-            ProductPanel productPanel = new ProductPanel();
-            productTab.setContent(productPanel);
-        } catch (SQLException ex) {
-            showAlert("Database Error", "Failed to load Product Panel: " + ex.getMessage());
-        }
-    }
-
-    private void loadCategoryPanel(Tab categoryTab) {
-        try {
-            CategoryPanel categoryPanel = new CategoryPanel();
-            categoryTab.setContent(categoryPanel);
-        } catch (SQLException ex) {
-            showAlert("Database Error", "Failed to load Category Panel: " + ex.getMessage());
-        }
-    }
-
-    private void loadSupplierPanel(Tab supplierTab) {
-        try {
-            SupplierPanel supplierPanel = new SupplierPanel();
-            supplierTab.setContent(supplierPanel);
-        } catch (SQLException ex) {
-            showAlert("Database Error", "Failed to load Supplier Panel: " + ex.getMessage());
-        }
-    }
-
-    private void loadPurchaseHistoryPanel(Tab purchaseHistoryTab) {
-        try {
-            PurchaseHistoryPanel purchaseHistoryPanel = new PurchaseHistoryPanel();
-            purchaseHistoryTab.setContent(purchaseHistoryPanel);
-        } catch (SQLException ex) {
-            showAlert("Database Error", "Failed to load Purchase History Panel: " + ex.getMessage());
-        }
-    }
-
-    private void loadBatchPanel(Tab batchTab) {
-        try {
-            BatchPanel batchPanel = new BatchPanel();
-            batchTab.setContent(batchPanel);
-        } catch (SQLException ex) {
-            showAlert("Database Error", "Failed to load Batch Panel: " + ex.getMessage());
-        }
-    }
-
-    private void loadLowStockAlert(Tab lowStockAlertTab) {
-        try {
-            LowStockAlertDialog lowStockAlertDialog = new LowStockAlertDialog();
-            lowStockAlertTab.setContent(lowStockAlertDialog);
-        } catch (SQLException ex) {
-            showAlert("Database Error", "Failed to load Low Stock Alert: " + ex.getMessage());
-        }
+    @Override
+    public void stop() throws Exception {
+        // Stock holds are written behind; save the last ones before the pool closes
+        new ProductController().stopReservations();
+        DatabaseConnection.closedConnection();
     }
 
     private void showAlert(String title, String message) {
@@ -1,66 +1,82 @@
 package model;
 
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import javafx.beans.property.SimpleObjectProperty;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class Batch {
-    private final IntegerProperty batchIdProperty;
-    private final IntegerProperty productIdProperty;
-    private final StringProperty expiryDateProperty;
-    private final IntegerProperty quantityInBatchProperty;
+    private IntegerProperty batchIdProperty;
+    private IntegerProperty productIdProperty;
+    private ObjectProperty<LocalDate> expiryDateProperty;
+    private IntegerProperty quantityInBatchProperty;
 
     private int batch_id;
     private int product_id;
-    private String expiry_date;
+    private LocalDate expiry_date;
     private int quantity_in_batch;
+    // Row version read from the database; updates only succeed while it is unchanged
+    private int version;
 
     // Constructor
-    public Batch(int batch_id, int product_id, String expiry_date, int quantity_in_batch) {
+    public Batch(int batch_id, int product_id, LocalDate expiry_date, int quantity_in_batch) {
         this.batch_id = batch_id;
         this.product_id = product_id;
         this.expiry_date = expiry_date;
         this.quantity_in_batch = quantity_in_batch;
+    }
 
-        // Initialize JavaFX properties and sync with standard fields
-        this.batchIdProperty = new SimpleIntegerProperty(batch_id);
-        this.productIdProperty = new SimpleIntegerProperty(product_id);
-        this.expiryDateProperty = new SimpleStringProperty(expiry_date);
-        this.quantityInBatchProperty = new SimpleIntegerProperty(quantity_in_batch);
-
-        // Add listeners to sync changes between standard fields and properties
-        addPropertyListeners();
+    public Batch(BatchRecord record) {
+        this(record.batchId(), record.productId(), record.expiryDate(), record.quantityInBatch());
+        this.version = record.version();
     }
 
-    private void addPropertyListeners() {
-        batchIdProperty.addListener((obs, oldVal, newVal) -> this.batch_id = newVal.intValue());
-        productIdProperty.addListener((obs, oldVal, newVal) -> this.product_id = newVal.intValue());
-        expiryDateProperty.addListener((obs, oldVal, newVal) -> this.expiry_date = newVal);
-        quantityInBatchProperty.addListener((obs, oldVal, newVal) -> this.quantity_in_batch = newVal.intValue());
+    // Immutable snapshot of this batch without any JavaFX state
+    public BatchRecord toRecord() {
+        return new BatchRecord(batch_id, product_id, expiry_date, quantity_in_batch, version);
     }
 
-    // Property getters for JavaFX binding
+    // Property getters for JavaFX binding; each property is only created when a view binds to it
     public IntegerProperty batchIdProperty() {
+        if (batchIdProperty == null) {
+            batchIdProperty = new SimpleIntegerProperty(batch_id);
+            batchIdProperty.addListener((obs, oldVal, newVal) -> this.batch_id = newVal.intValue());
+        }
         return batchIdProperty;
     }
 
     public IntegerProperty productIdProperty() {
+        if (productIdProperty == null) {
+            productIdProperty = new SimpleIntegerProperty(product_id);
+            productIdProperty.addListener((obs, oldVal, newVal) -> this.product_id = newVal.intValue());
+        }
         return productIdProperty;
     }
 
-    public StringProperty expiryDateProperty() {
+    public ObjectProperty<LocalDate> expiryDateProperty() {
+        if (expiryDateProperty == null) {
+            expiryDateProperty = new SimpleObjectProperty<>(expiry_date);
+            expiryDateProperty.addListener((obs, oldVal, newVal) -> this.expiry_date = newVal);
+        }
         return expiryDateProperty;
     }
 
     public IntegerProperty quantityInBatchProperty() {
+        if (quantityInBatchProperty == null) {
+            quantityInBatchProperty = new SimpleIntegerProperty(quantity_in_batch);
+            quantityInBatchProperty.addListener((obs, oldVal, newVal) -> this.quantity_in_batch = newVal.intValue());
+        }
         return quantityInBatchProperty;
     }
 
@@ -71,7 +87,9 @@ public class Batch {
 
     public void setBatchId(int batch_id) {
         this.batch_id = batch_id;
-        this.batchIdProperty.set(batch_id); // Sync with property
+        if (this.batchIdProperty != null) {
+            this.batchIdProperty.set(batch_id); // Sync with property
+        }
     }
 
     public int getProductId() {
@@ -80,16 +98,20 @@ public class Batch {
 
     public void setProductId(int product_id) {
         this.product_id = product_id;
-        this.productIdProperty.set(product_id); // Sync with property
+        if (this.productIdProperty != null) {
+            this.productIdProperty.set(product_id); // Sync with property
+        }
     }
 
-    public String getExpiryDate() {
+    public LocalDate getExpiryDate() {
         return expiry_date;
     }
 
-    public void setExpiryDate(String expiry_date) {
+    public void setExpiryDate(LocalDate expiry_date) {
         this.expiry_date = expiry_date;
-        this.expiryDateProperty.set(expiry_date); // Sync with property
+        if (this.expiryDateProperty != null) {
+            this.expiryDateProperty.set(expiry_date); // Sync with property
+        }
     }
 
     public int getQuantityInBatch() {
@@ -98,18 +120,24 @@ public class Batch {
 
     public void setQuantityInBatch(int quantity_in_batch) {
         this.quantity_in_batch = quantity_in_batch;
-        this.quantityInBatchProperty.set(quantity_in_batch); // Sync with property
+        if (this.quantityInBatchProperty != null) {
+            this.quantityInBatchProperty.set(quantity_in_batch); // Sync with property
+        }
+    }
+
+    public int getVersion() {
+        return version;
     }
 
     // CRUD Operations
 
     // Save a new batch
     public void save() throws SQLException {
-        String sql = "INSERT INTO Batch (product_id, expiry_date, quantity_in_batch) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO Batches (product_id, expiry_date, quantity_in_batch) VALUES (?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, product_id);
-            pstmt.setString(2, expiry_date);
+            setExpiryDate(pstmt, 2, expiry_date);
             pstmt.setInt(3, quantity_in_batch);
             pstmt.executeUpdate();
 
@@ -117,25 +145,82 @@ public class Batch {
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     this.batch_id = generatedKeys.getInt(1); // Set the generated ID in the current object
-                    this.batchIdProperty.set(this.batch_id);
+                    if (this.batchIdProperty != null) {
+                        this.batchIdProperty.set(this.batch_id);
+                    }
                 } else {
                     throw new SQLException("Failed to retrieve generated batch ID.");
                 }
             }
         }
+        BatchEvents.fireChanged(toRecord());
     }
 
-    // Update method
+    // Update method; only succeeds if the row still has the version this object was loaded with
     public void update() throws SQLException {
-        String sql = "UPDATE Batches SET product_id = ?, expiry_date = ?, quantity_in_batch = ? WHERE batch_id = ?";
+        String sql = "UPDATE Batches SET product_id = ?, expiry_date = ?, quantity_in_batch = ?, version = version + 1 WHERE batch_id = ? AND version = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, product_id);
-            pstmt.setString(2, expiry_date);
+            setExpiryDate(pstmt, 2, expiry_date);
             pstmt.setInt(3, quantity_in_batch);
             pstmt.setInt(4, batch_id);
-            pstmt.executeUpdate();
+            pstmt.setInt(5, version);
+            if (pstmt.executeUpdate() == 0) {
+                throw new OptimisticLockException("Batches", batch_id);
+            }
+            version++;
         }
+        BatchEvents.fireChanged(toRecord());
+    }
+
+    // Insert many batches with JDBC batching; the generated IDs are set on the batches and returned in order.
+    // If a later chunk fails, the batches of the chunks already committed still get their IDs.
+    public static List<Integer> saveAll(Collection<Batch> batches) throws SQLException {
+        return saveAll(batches, JdbcBatch.DEFAULT_CHUNK_SIZE);
+    }
+
+    public static List<Integer> saveAll(Collection<Batch> batches, int chunkSize) throws SQLException {
+        String sql = "INSERT INTO Batches (product_id, expiry_date, quantity_in_batch) VALUES (?, ?, ?)";
+        return JdbcBatch.insert(sql, batches, chunkSize, (pstmt, batch) -> {
+            pstmt.setInt(1, batch.product_id);
+            setExpiryDate(pstmt, 2, batch.expiry_date);
+            pstmt.setInt(3, batch.quantity_in_batch);
+        }, (batch, key) -> {
+            batch.setBatchId(key);
+            BatchEvents.fireChanged(batch.toRecord());
+        });
+    }
+
+    // Update many batches with JDBC batching; returns the number of rows updated.
+    // Rows whose version changed are skipped and reported in an OptimisticLockException.
+    public static int updateAll(Collection<Batch> batches) throws SQLException {
+        return updateAll(batches, JdbcBatch.DEFAULT_CHUNK_SIZE);
+    }
+
+    public static int updateAll(Collection<Batch> batches, int chunkSize) throws SQLException {
+        String sql = "UPDATE Batches SET product_id = ?, expiry_date = ?, quantity_in_batch = ?, version = version + 1 WHERE batch_id = ? AND version = ?";
+        int[] counts = JdbcBatch.updateEach(sql, batches, chunkSize, (pstmt, batch) -> {
+            pstmt.setInt(1, batch.product_id);
+            setExpiryDate(pstmt, 2, batch.expiry_date);
+            pstmt.setInt(3, batch.quantity_in_batch);
+            pstmt.setInt(4, batch.batch_id);
+            pstmt.setInt(5, batch.version);
+        });
+        List<Integer> conflicts = new ArrayList<>();
+        int i = 0;
+        for (Batch batch : batches) {
+            if (counts[i++] == 1) {
+                batch.version++;
+                BatchEvents.fireChanged(batch.toRecord());
+            } else {
+                conflicts.add(batch.batch_id);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new OptimisticLockException("Batches", conflicts);
+        }
+        return batches.size();
     }
 
     // Delete method
@@ -146,6 +231,19 @@ public class Batch {
             pstmt.setInt(1, batch_id);
             pstmt.executeUpdate();
         }
+        BatchEvents.fireDeleted(batch_id);
+    }
+
+    // Fetch a single batch, or null if it does not exist
+    public static Batch fetchById(int batch_id) throws SQLException {
+        String sql = "SELECT * FROM Batches WHERE batch_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, batch_id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new Batch(BatchRecord.from(rs)) : null;
+            }
+        }
     }
 
     // Fetch all batches
@@ -156,17 +254,37 @@ public class Batch {
                 PreparedStatement pstmt = conn.prepareStatement(sql);
                 ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                Batch batch = new Batch(
-                        rs.getInt("batch_id"),
-                        rs.getInt("product_id"),
-                        rs.getString("expiry_date"),
-                        rs.getInt("quantity_in_batch"));
-                batches.add(batch);
+                batches.add(new Batch(BatchRecord.from(rs)));
+            }
+        }
+        return batches;
+    }
+
+    // Fetch all batches as plain records
+    public static List<BatchRecord> fetchAllRecords() throws SQLException {
+        List<BatchRecord> batches = new ArrayList<>();
+        String sql = "SELECT * FROM Batches";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                batches.add(BatchRecord.from(rs));
             }
         }
         return batches;
     }
 
+    // Stream every batch through the action without holding the whole table in memory
+    public static void forEachRecord(Consumer<BatchRecord> action) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = DatabaseConnection.prepareStreaming(conn, "SELECT * FROM Batches ORDER BY batch_id");
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                action.accept(BatchRecord.from(rs));
+            }
+        }
+    }
+
     // Fetch batches by product_id
     public static List<Batch> fetchByProductId(int product_id) throws SQLException {
         List<Batch> batches = new ArrayList<>();
@@ -177,17 +295,21 @@ public class Batch {
             pstmt.setInt(1, product_id);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Batch batch = new Batch(
-                            rs.getInt("batch_id"),
-                            rs.getInt("product_id"),
-                            rs.getString("expiry_date"),
-                            rs.getInt("quantity_in_batch"));
-                    batches.add(batch);
+                    batches.add(new Batch(BatchRecord.from(rs)));
                 }
             }
         }
         return batches;
     }
+
+    // Binds an expiry date as a DATE; batches without one are stored as NULL
+    private static void setExpiryDate(PreparedStatement pstmt, int index, LocalDate expiry_date) throws SQLException {
+        if (expiry_date == null) {
+            pstmt.setNull(index, Types.DATE);
+        } else {
+            pstmt.setObject(index, expiry_date);
+        }
+    }
 }
 
 
@@ -0,0 +1,54 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Notifies in-memory views of the batches (the expiry index, ...) of every change made through
+// the Batch write path. Listeners run on the thread that made the change, after it was committed,
+// and must be quick.
+public final class BatchEvents {
+    private static final Logger LOG = Logger.getLogger(BatchEvents.class.getName());
+
+    public interface Listener {
+        // The batch was inserted or updated; batch is the row as written
+        void batchChanged(BatchRecord batch);
+
+        void batchDeleted(int batch_id);
+    }
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private BatchEvents() {
+    }
+
+    public static void subscribe(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void unsubscribe(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    static void fireChanged(BatchRecord batch) {
+        for (Listener listener : LISTENERS) {
+            try {
+                listener.batchChanged(batch);
+            } catch (RuntimeException e) {
+                // A broken listener must not fail a write that has already been committed
+                LOG.log(Level.WARNING, "Batch listener failed for batch " + batch.batchId(), e);
+            }
+        }
+    }
+
+    static void fireDeleted(int batch_id) {
+        for (Listener listener : LISTENERS) {
+            try {
+                listener.batchDeleted(batch_id);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Batch listener failed for deleted batch " + batch_id, e);
+            }
+        }
+    }
+}
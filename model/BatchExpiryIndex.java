@@ -0,0 +1,211 @@
+package model;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// In-memory index of batch expiry dates. Batches with stock left are kept in a sorted map keyed
+// by expiry date, so "what expires between two dates" is a range scan over just those batches
+// (O(log n + results)) and never touches the database. Filled once from the Batches table and
+// then kept current through BatchEvents.
+//
+// sweep() publishes EXPIRING / EXPIRED events. It remembers how far it has already announced, so
+// each run only looks at the dates that came into range since the previous run; batches added
+// or re-dated inside an announced range are announced as soon as they are written.
+public class BatchExpiryIndex implements BatchEvents.Listener {
+    private static final Logger LOG = Logger.getLogger(BatchExpiryIndex.class.getName());
+
+    public interface Listener {
+        // Called while the index is locked; hand the event off (e.g. Platform.runLater) and return
+        void expiryChanged(ExpiryEvent event);
+    }
+
+    // Expiry date -> IDs of the batches with stock left that expire on it
+    private final ConcurrentSkipListMap<LocalDate, Set<Integer>> byDate = new ConcurrentSkipListMap<>();
+    private final Map<Integer, BatchRecord> batches = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Batches deleted while the initial load was running, so the load does not bring them back
+    private final Set<Integer> deletedDuringLoad = ConcurrentHashMap.newKeySet();
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+    private volatile boolean loading;
+    // Dates before expiredBefore have been announced as EXPIRED, dates up to and including
+    // expiringThrough as EXPIRING; both null until the first sweep
+    private LocalDate expiredBefore;
+    private LocalDate expiringThrough;
+
+    // Subscribe to batch changes and read the Batches table once; later calls return immediately
+    public void load() throws SQLException {
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            loading = true;
+            BatchEvents.subscribe(this);
+            try {
+                Batch.forEachRecord(batch -> {
+                    if (!deletedDuringLoad.contains(batch.batchId())) {
+                        put(batch, false);
+                    }
+                });
+                loaded = true;
+            } catch (SQLException | RuntimeException e) {
+                BatchEvents.unsubscribe(this);
+                clear();
+                throw e;
+            } finally {
+                loading = false;
+                deletedDuringLoad.clear();
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Batches with stock left expiring from..to, both inclusive, soonest first
+    public List<BatchRecord> expiringBetween(LocalDate from, LocalDate to) {
+        return collect(byDate.subMap(from, true, to, true).values());
+    }
+
+    // Batches expiring today or within the given number of days, soonest first
+    public List<BatchRecord> expiringWithin(LocalDate today, int days) {
+        return expiringBetween(today, today.plusDays(days));
+    }
+
+    // Batches with stock left whose expiry date is before today, oldest first
+    public List<BatchRecord> expiredAsOf(LocalDate today) {
+        return collect(byDate.headMap(today, false).values());
+    }
+
+    public int size() {
+        return batches.size();
+    }
+
+    // Announce batches that expired or came within warningDays of expiring since the last sweep
+    public synchronized void sweep(LocalDate today, int warningDays) {
+        LocalDate horizon = today.plusDays(warningDays);
+        Map<LocalDate, Set<Integer>> newlyExpired = expiredBefore == null
+                ? byDate.headMap(today, false)
+                : byDate.subMap(expiredBefore, true, today, false);
+        publish(ExpiryEvent.Type.EXPIRED, newlyExpired.values());
+
+        LocalDate from = expiringThrough == null || expiringThrough.isBefore(today) ? today : expiringThrough.plusDays(1);
+        if (!from.isAfter(horizon)) {
+            publish(ExpiryEvent.Type.EXPIRING, byDate.subMap(from, true, horizon, true).values());
+        }
+        expiredBefore = today;
+        expiringThrough = horizon;
+    }
+
+    @Override
+    public void batchChanged(BatchRecord batch) {
+        put(batch, true);
+    }
+
+    @Override
+    public void batchDeleted(int batch_id) {
+        if (loading) {
+            deletedDuringLoad.add(batch_id);
+        }
+        remove(batch_id);
+    }
+
+    private synchronized void put(BatchRecord batch, boolean announce) {
+        BatchRecord previous = batches.get(batch.batchId());
+        if (previous != null && previous.version() > batch.version()) {
+            return;
+        }
+        if (previous != null) {
+            unindex(previous);
+        }
+        if (batch.expiryDate() == null || batch.quantityInBatch() <= 0) {
+            return;
+        }
+        batches.put(batch.batchId(), batch);
+        byDate.computeIfAbsent(batch.expiryDate(), d -> ConcurrentHashMap.newKeySet()).add(batch.batchId());
+
+        // The sweep has already passed this date, so it would never be announced otherwise
+        boolean moved = previous == null || !batch.expiryDate().equals(previous.expiryDate());
+        if (announce && moved && expiredBefore != null) {
+            if (batch.expiryDate().isBefore(expiredBefore)) {
+                fire(new ExpiryEvent(ExpiryEvent.Type.EXPIRED, batch));
+            } else if (!batch.expiryDate().isAfter(expiringThrough)) {
+                fire(new ExpiryEvent(ExpiryEvent.Type.EXPIRING, batch));
+            }
+        }
+    }
+
+    private synchronized void remove(int batch_id) {
+        BatchRecord previous = batches.get(batch_id);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    private void unindex(BatchRecord batch) {
+        batches.remove(batch.batchId());
+        if (batch.expiryDate() == null) {
+            return;
+        }
+        Set<Integer> ids = byDate.get(batch.expiryDate());
+        if (ids != null) {
+            ids.remove(batch.batchId());
+            if (ids.isEmpty()) {
+                byDate.remove(batch.expiryDate(), ids);
+            }
+        }
+    }
+
+    private synchronized void clear() {
+        byDate.clear();
+        batches.clear();
+    }
+
+    private List<BatchRecord> collect(Collection<Set<Integer>> idSets) {
+        List<BatchRecord> result = new ArrayList<>();
+        for (Set<Integer> ids : idSets) {
+            for (Integer batch_id : ids) {
+                BatchRecord batch = batches.get(batch_id);
+                if (batch != null) {
+                    result.add(batch);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void publish(ExpiryEvent.Type type, Collection<Set<Integer>> idSets) {
+        for (BatchRecord batch : collect(idSets)) {
+            fire(new ExpiryEvent(type, batch));
+        }
+    }
+
+    private void fire(ExpiryEvent event) {
+        for (Listener listener : listeners) {
+            try {
+                listener.expiryChanged(event);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Expiry listener failed for batch " + event.batch().batchId(), e);
+            }
+        }
+    }
+}
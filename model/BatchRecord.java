@@ -0,0 +1,18 @@
+package model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// Immutable row of the Batches table for code that never binds to the UI
+public record BatchRecord(int batchId, int productId, LocalDate expiryDate, int quantityInBatch, int version) {
+
+    public static BatchRecord from(ResultSet rs) throws SQLException {
+        return new BatchRecord(
+                rs.getInt("batch_id"),
+                rs.getInt("product_id"),
+                rs.getObject("expiry_date", LocalDate.class),
+                rs.getInt("quantity_in_batch"),
+                rs.getInt("version"));
+    }
+}
@@ -13,37 +13,46 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Category {
-    private final IntegerProperty categoryIdProperty;
-    private final StringProperty categoryNameProperty;
+    private IntegerProperty categoryIdProperty;
+    private StringProperty categoryNameProperty;
 
     private int category_id;
     private String category_name;
 
+    // Categories rarely change, so lookups are served from memory and refreshed every few minutes
+    private static final ReadThroughCache<CategoryRecord> CACHE =
+            new ReadThroughCache<>(5 * 60_000, CategoryRecord::categoryId, Category::fetchAllRecords);
+
     // Constructor
     public Category(int category_id, String category_name) {
         // Initialize standard fields
         this.category_id = category_id;
         this.category_name = category_name;
+    }
 
-        // Initialize JavaFX properties and sync with standard fields
-        this.categoryIdProperty = new SimpleIntegerProperty(category_id);
-        this.categoryNameProperty = new SimpleStringProperty(category_name);
-
-        // Add listeners to sync changes between standard fields and properties
-        addPropertyListeners();
+    public Category(CategoryRecord record) {
+        this(record.categoryId(), record.categoryName());
     }
 
-    private void addPropertyListeners() {
-        categoryIdProperty.addListener((obs, oldVal, newVal) -> this.category_id = newVal.intValue());
-        categoryNameProperty.addListener((obs, oldVal, newVal) -> this.category_name = newVal);
+    // Immutable snapshot of this category without any JavaFX state
+    public CategoryRecord toRecord() {
+        return new CategoryRecord(category_id, category_name);
     }
 
-    // Property getters for JavaFX binding
+    // Property getters for JavaFX binding; each property is only created when a view binds to it
     public IntegerProperty categoryIdProperty() {
+        if (categoryIdProperty == null) {
+            categoryIdProperty = new SimpleIntegerProperty(category_id);
+            categoryIdProperty.addListener((obs, oldVal, newVal) -> this.category_id = newVal.intValue());
+        }
         return categoryIdProperty;
     }
 
     public StringProperty categoryNameProperty() {
+        if (categoryNameProperty == null) {
+            categoryNameProperty = new SimpleStringProperty(category_name);
+            categoryNameProperty.addListener((obs, oldVal, newVal) -> this.category_name = newVal);
+        }
         return categoryNameProperty;
     }
 
@@ -54,7 +63,9 @@ public class Category {
 
     public void setCategoryId(int category_id) {
         this.category_id = category_id;
-        this.categoryIdProperty.set(category_id); // Sync with property
+        if (this.categoryIdProperty != null) {
+            this.categoryIdProperty.set(category_id); // Sync with property
+        }
     }
 
     public String getCategoryName() {
@@ -63,7 +74,9 @@ public class Category {
 
     public void setCategoryName(String category_name) {
         this.category_name = category_name;
-        this.categoryNameProperty.set(category_name); // Sync with property
+        if (this.categoryNameProperty != null) {
+            this.categoryNameProperty.set(category_name); // Sync with property
+        }
     }
 
     // CRUD Operations
@@ -75,12 +88,15 @@ public class Category {
     
             pstmt.setString(1, category_name);
             pstmt.executeUpdate();
+            CACHE.invalidate();
     
             // Retrieve the generated ID
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     this.category_id = generatedKeys.getInt(1); // Set the generated ID in the current object
-                    this.categoryIdProperty.set(this.category_id);
+                    if (this.categoryIdProperty != null) {
+                        this.categoryIdProperty.set(this.category_id);
+                    }
                 } else {
                     throw new SQLException("Failed to retrieve generated category ID.");
                 }
@@ -98,6 +114,7 @@ public class Category {
             pstmt.setString(1, category_name);
             pstmt.setInt(2, category_id);
             pstmt.executeUpdate();
+            CACHE.invalidate();
         }
     }
 
@@ -108,6 +125,7 @@ public class Category {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, category_id);
             pstmt.executeUpdate();
+            CACHE.invalidate();
         }
     }
 
@@ -121,11 +139,40 @@ public class Category {
              ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                Category category = new Category(
-                        rs.getInt("category_id"),
-                        rs.getString("category_name"));
+                categories.add(new Category(CategoryRecord.from(rs)));
+            }
+        }
+        return categories;
+    }
+
+    // Look up a category by ID from the in-memory cache; null if there is no such category
+    public static CategoryRecord findById(int category_id) throws SQLException {
+        return CACHE.get(category_id);
+    }
 
-                categories.add(category);
+    // All categories from the in-memory cache, as new editable objects
+    public static List<Category> fetchAllCached() throws SQLException {
+        List<Category> categories = new ArrayList<>();
+        for (CategoryRecord record : CACHE.getAll()) {
+            categories.add(new Category(record));
+        }
+        return categories;
+    }
+
+    // The category cache, e.g. to read its hit/miss counters or force a reload
+    public static ReadThroughCache<CategoryRecord> cache() {
+        return CACHE;
+    }
+
+    // Fetch all categories as plain records
+    public static List<CategoryRecord> fetchAllRecords() throws SQLException {
+        List<CategoryRecord> categories = new ArrayList<>();
+        String sql = "SELECT * FROM Categories";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                categories.add(CategoryRecord.from(rs));
             }
         }
         return categories;
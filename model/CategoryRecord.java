@@ -0,0 +1,14 @@
+package model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Immutable row of the Categories table for code that never binds to the UI
+public record CategoryRecord(int categoryId, String categoryName) {
+
+    public static CategoryRecord from(ResultSet rs) throws SQLException {
+        return new CategoryRecord(
+                rs.getInt("category_id"),
+                rs.getString("category_name"));
+    }
+}
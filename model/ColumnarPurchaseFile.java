@@ -0,0 +1,235 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+// Compact columnar snapshot of Purchase_History.
+//
+// The file starts with the magic "IMSPH" and a version byte, followed by row groups of up to
+// GROUP_SIZE rows and a terminating 0. Each group is a varint row count and then one block per column:
+//   purchase_id   zigzag varint delta from the previous row
+//   product_id    dictionary (varint size + zigzag ids), then one varint dictionary index per row
+//   supplier_id   dictionary, same as product_id
+//   purchase_date zigzag varint delta of (epoch day + 1), where 0 stands for a missing date
+//   quantity      zigzag varint
+//   cost          zigzag varint of the cost in cents
+// Only one group is ever held in memory, on both the writing and the reading side.
+public class ColumnarPurchaseFile {
+    private static final byte[] MAGIC = { 'I', 'M', 'S', 'P', 'H' };
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    public static final int GROUP_SIZE = 65_536;
+
+    // Receives decoded rows without boxing any of the columns
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(int purchaseId, int productId, int supplierId, LocalDate purchaseDate, int quantity, long costCents);
+    }
+
+    public static Writer newWriter(OutputStream out) throws IOException {
+        return new Writer(out);
+    }
+
+    // Decode a snapshot and pass every row to the visitor; returns the number of rows read
+    public static long read(Path file, boolean gzip, RowVisitor visitor) throws IOException {
+        // The varints are read a byte at a time, which GZIPInputStream does not buffer by itself
+        InputStream raw = Files.newInputStream(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                gzip ? new GZIPInputStream(raw, BUFFER_SIZE) : raw, BUFFER_SIZE))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.readUnsignedByte() != VERSION) {
+                throw new IOException(file + " is not a purchase history snapshot");
+            }
+
+            long total = 0;
+            int[] ids = new int[GROUP_SIZE];
+            int[] products = new int[GROUP_SIZE];
+            int[] suppliers = new int[GROUP_SIZE];
+            long[] days = new long[GROUP_SIZE];
+            int[] quantities = new int[GROUP_SIZE];
+            long[] costs = new long[GROUP_SIZE];
+            int previousId = 0;
+            long previousDay = 0;
+            int rows;
+            while ((rows = (int) readVarLong(in)) > 0) {
+                for (int i = 0; i < rows; i++) {
+                    previousId += (int) readZigZag(in);
+                    ids[i] = previousId;
+                }
+                readDictionaryColumn(in, products, rows);
+                readDictionaryColumn(in, suppliers, rows);
+                for (int i = 0; i < rows; i++) {
+                    previousDay += readZigZag(in);
+                    days[i] = previousDay;
+                }
+                for (int i = 0; i < rows; i++) {
+                    quantities[i] = (int) readZigZag(in);
+                }
+                for (int i = 0; i < rows; i++) {
+                    costs[i] = readZigZag(in);
+                }
+                for (int i = 0; i < rows; i++) {
+                    LocalDate date = days[i] == 0 ? null : LocalDate.ofEpochDay(days[i] - 1);
+                    visitor.visit(ids[i], products[i], suppliers[i], date, quantities[i], costs[i]);
+                }
+                total += rows;
+            }
+            return total;
+        }
+    }
+
+    public static final class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+        private final int[] ids = new int[GROUP_SIZE];
+        private final int[] products = new int[GROUP_SIZE];
+        private final int[] suppliers = new int[GROUP_SIZE];
+        private final long[] days = new long[GROUP_SIZE];
+        private final int[] quantities = new int[GROUP_SIZE];
+        private final long[] costs = new long[GROUP_SIZE];
+        private final Map<Integer, Integer> dictionary = new HashMap<>();
+        private int buffered;
+        private long rowCount;
+        private int previousId;
+        private long previousDay;
+
+        private Writer(OutputStream out) throws IOException {
+            // Buffered here as well, since a GZIPOutputStream would deflate every single-byte write
+            this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+            this.out.write(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        public void add(int purchaseId, int productId, int supplierId, LocalDate purchaseDate, int quantity, long costCents) throws IOException {
+            ids[buffered] = purchaseId;
+            products[buffered] = productId;
+            suppliers[buffered] = supplierId;
+            days[buffered] = purchaseDate == null ? 0 : purchaseDate.toEpochDay() + 1;
+            quantities[buffered] = quantity;
+            costs[buffered] = costCents;
+            buffered++;
+            rowCount++;
+            if (buffered == GROUP_SIZE) {
+                flushGroup();
+            }
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushGroup();
+                writeVarLong(out, 0);
+            } finally {
+                out.close();
+            }
+        }
+
+        private void flushGroup() throws IOException {
+            if (buffered == 0) {
+                return;
+            }
+            writeVarLong(out, buffered);
+            for (int i = 0; i < buffered; i++) {
+                writeZigZag(out, (long) ids[i] - previousId);
+                previousId = ids[i];
+            }
+            writeDictionaryColumn(products);
+            writeDictionaryColumn(suppliers);
+            for (int i = 0; i < buffered; i++) {
+                writeZigZag(out, days[i] - previousDay);
+                previousDay = days[i];
+            }
+            for (int i = 0; i < buffered; i++) {
+                writeZigZag(out, quantities[i]);
+            }
+            for (int i = 0; i < buffered; i++) {
+                writeZigZag(out, costs[i]);
+            }
+            buffered = 0;
+        }
+
+        // Replace each value by its position in a per-group dictionary of distinct values
+        private void writeDictionaryColumn(int[] values) throws IOException {
+            dictionary.clear();
+            int[] codes = new int[buffered];
+            int[] distinct = new int[buffered];
+            for (int i = 0; i < buffered; i++) {
+                Integer code = dictionary.get(values[i]);
+                if (code == null) {
+                    code = dictionary.size();
+                    dictionary.put(values[i], code);
+                    distinct[code] = values[i];
+                }
+                codes[i] = code;
+            }
+            writeVarLong(out, dictionary.size());
+            for (int i = 0; i < dictionary.size(); i++) {
+                writeZigZag(out, distinct[i]);
+            }
+            for (int i = 0; i < buffered; i++) {
+                writeVarLong(out, codes[i]);
+            }
+        }
+    }
+
+    private static void readDictionaryColumn(DataInputStream in, int[] values, int rows) throws IOException {
+        int size = (int) readVarLong(in);
+        int[] distinct = new int[size];
+        for (int i = 0; i < size; i++) {
+            distinct[i] = (int) readZigZag(in);
+        }
+        for (int i = 0; i < rows; i++) {
+            values[i] = distinct[(int) readVarLong(in)];
+        }
+    }
+
+    private static void writeZigZag(DataOutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readZigZag(DataInputStream in) throws IOException {
+        long encoded = readVarLong(in);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    // Unsigned LEB128: seven bits per byte, high bit set on every byte but the last
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated purchase history snapshot");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in purchase history snapshot");
+    }
+}
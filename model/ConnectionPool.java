@@ -0,0 +1,305 @@
+package model;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Bounded JDBC connection pool. Callers get a proxy whose close() hands the
+// physical connection back to the pool, so the existing try-with-resources
+// blocks in the models keep working unchanged.
+public class ConnectionPool {
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final long validationIntervalMillis;
+
+    // Idle connections, most recently returned first so the warmest socket is reused
+    private final LinkedBlockingDeque<PhysicalConnection> idle = new LinkedBlockingDeque<>();
+    // One permit per connection that may be handed out at the same time
+    private final Semaphore permits;
+    private final Map<PhysicalConnection, Borrow> borrowed = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+            long acquireTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationIntervalMillis = 500;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Warm up the minimum number of connections in the background, then keep the pool tidy
+        housekeeper.execute(this::fillToMinimum);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 30, 30, TimeUnit.SECONDS);
+    }
+
+    // Borrow a connection, waiting at most acquireTimeoutMillis for one to become free
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down.");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis
+                        + " ms waiting for a database connection (max pool size " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PhysicalConnection physical = takeValidIdle();
+            if (physical == null) {
+                physical = open();
+            }
+            borrowed.put(physical, new Borrow(System.currentTimeMillis(), new Exception("Connection borrowed here")));
+            return physical.newHandle(this);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Close every connection and stop the housekeeping thread
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            discard(physical);
+        }
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private PhysicalConnection takeValidIdle() {
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            // Only ping connections that have been sitting idle; a connection returned a moment
+            // ago is known to be good and re-validating it would cost a round trip per borrow
+            long idleFor = System.currentTimeMillis() - physical.lastReturned;
+            if (idleFor < validationIntervalMillis || isValid(physical)) {
+                return physical;
+            }
+            discard(physical);
+        }
+        return null;
+    }
+
+    private boolean isValid(PhysicalConnection physical) {
+        try {
+            return !physical.connection.isClosed() && physical.connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PhysicalConnection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        return new PhysicalConnection(connection);
+    }
+
+    private void discard(PhysicalConnection physical) {
+        totalConnections.decrementAndGet();
+        try {
+            physical.connection.close();
+        } catch (SQLException e) {
+            LOG.log(Level.FINE, "Failed to close pooled connection", e);
+        }
+    }
+
+    // Called by a handle's close(): reset session state and make the connection available again
+    private void release(PhysicalConnection physical) {
+        borrowed.remove(physical);
+        try {
+            if (shutdown || physical.connection.isClosed()) {
+                discard(physical);
+                return;
+            }
+            if (!physical.connection.getAutoCommit()) {
+                physical.connection.rollback();
+                physical.connection.setAutoCommit(true);
+            }
+            if (physical.connection.isReadOnly()) {
+                physical.connection.setReadOnly(false);
+            }
+            physical.lastReturned = System.currentTimeMillis();
+            idle.offerFirst(physical);
+        } catch (SQLException e) {
+            discard(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void housekeep() {
+        evictIdle();
+        fillToMinimum();
+        detectLeaks();
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        // Oldest idle connections sit at the tail of the deque
+        Iterator<PhysicalConnection> it = idle.descendingIterator();
+        while (it.hasNext() && totalConnections.get() > minSize) {
+            PhysicalConnection physical = it.next();
+            if (now - physical.lastReturned > idleTimeoutMillis && idle.remove(physical)) {
+                discard(physical);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!shutdown && totalConnections.get() < minSize) {
+            try {
+                PhysicalConnection physical = open();
+                physical.lastReturned = System.currentTimeMillis();
+                idle.offerLast(physical);
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, "Could not open connection while filling pool: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.currentTimeMillis();
+        List<Borrow> leaks = new ArrayList<>();
+        for (Borrow borrow : borrowed.values()) {
+            if (!borrow.reported && now - borrow.borrowedAt > leakThresholdMillis) {
+                borrow.reported = true;
+                leaks.add(borrow);
+            }
+        }
+        for (Borrow leak : leaks) {
+            LOG.log(Level.WARNING, "Possible connection leak: connection held for "
+                    + (now - leak.borrowedAt) + " ms", leak.origin);
+        }
+    }
+
+    private static final class Borrow {
+        private final long borrowedAt;
+        private final Exception origin;
+        private volatile boolean reported;
+
+        private Borrow(long borrowedAt, Exception origin) {
+            this.borrowedAt = borrowedAt;
+            this.origin = origin;
+        }
+    }
+
+    private static final class PhysicalConnection {
+        private final Connection connection;
+        private volatile long lastReturned;
+
+        private PhysicalConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        private Connection newHandle(ConnectionPool pool) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Handle(pool, this));
+        }
+    }
+
+    // The object callers see. close() returns the connection instead of closing the socket,
+    // and any use after close fails instead of touching a connection someone else now owns.
+    private static final class Handle implements InvocationHandler {
+        private final ConnectionPool pool;
+        private final PhysicalConnection physical;
+        private boolean closed;
+
+        private Handle(ConnectionPool pool, PhysicalConnection physical) {
+            this.pool = pool;
+            this.physical = physical;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pool.release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical.connection + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    try {
+                        return method.invoke(physical.connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
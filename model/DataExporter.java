@@ -0,0 +1,112 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+// Dumps tables straight from a forward-only ResultSet to a file, one row at a time,
+// so memory use does not grow with the size of the table
+public class DataExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Export the product catalog as CSV, gzip-compressed when gzip is true
+    public static ExportStats exportProductsCsv(Path file, boolean gzip) throws SQLException, IOException {
+        return exportCsv("SELECT * FROM Products ORDER BY product_id", file, gzip);
+    }
+
+    // Export the purchase history as CSV, gzip-compressed when gzip is true
+    public static ExportStats exportPurchasesCsv(Path file, boolean gzip) throws SQLException, IOException {
+        return exportCsv("SELECT * FROM Purchase_History ORDER BY purchase_id", file, gzip);
+    }
+
+    // Export the purchase history in the compact columnar format described in ColumnarPurchaseFile
+    public static ExportStats exportPurchasesColumnar(Path file, boolean gzip) throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows;
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = DatabaseConnection.prepareStreaming(conn,
+                        "SELECT purchase_id, product_id, supplier_id, purchase_date, quantity, cost FROM Purchase_History ORDER BY purchase_id");
+                ResultSet rs = pstmt.executeQuery();
+                ColumnarPurchaseFile.Writer writer = ColumnarPurchaseFile.newWriter(open(file, gzip))) {
+            while (rs.next()) {
+                Date date = rs.getDate("purchase_date");
+                writer.add(rs.getInt("purchase_id"),
+                        rs.getInt("product_id"),
+                        rs.getInt("supplier_id"),
+                        date == null ? null : date.toLocalDate(),
+                        rs.getInt("quantity"),
+                        rs.getBigDecimal("cost").movePointRight(2).longValue());
+            }
+            rows = writer.getRowCount();
+        }
+        return new ExportStats(file, rows, Files.size(file), System.nanoTime() - start);
+    }
+
+    static ExportStats exportCsv(String sql, Path file, boolean gzip) throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = DatabaseConnection.prepareStreaming(conn, sql);
+                ResultSet rs = pstmt.executeQuery();
+                Writer out = new BufferedWriter(new OutputStreamWriter(open(file, gzip), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    out.write(',');
+                }
+                writeField(out, meta.getColumnLabel(i));
+            }
+            out.write('\n');
+
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    if (i > 1) {
+                        out.write(',');
+                    }
+                    String value = rs.getString(i);
+                    if (value != null) {
+                        writeField(out, value);
+                    }
+                }
+                out.write('\n');
+                rows++;
+            }
+        }
+        return new ExportStats(file, rows, Files.size(file), System.nanoTime() - start);
+    }
+
+    private static OutputStream open(Path file, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        return gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    // Quote a field only when it contains a delimiter, quote or line break
+    private static void writeField(Writer out, String value) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
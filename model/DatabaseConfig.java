@@ -0,0 +1,92 @@
+package model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+// Where the database is and how to log in, kept out of the source. Read once, later sources
+// overriding earlier ones:
+//   1. the default: an embedded H2 database in ./data, so the application runs without a server
+//   2. database.properties in the working directory, or the file named by -Dinventory.db.config
+//      (keys db.url, db.user, db.password; see database.properties.example)
+//   3. the environment variables INVENTORY_DB_URL, INVENTORY_DB_USER and INVENTORY_DB_PASSWORD
+// The dialect follows from the JDBC URL and picks the migrations and the MySQL-only features.
+public record DatabaseConfig(String url, String user, String password) {
+    public static final String DEFAULT_URL = "jdbc:h2:./data/inventory;MODE=MySQL;LOCK_TIMEOUT=10000";
+    public static final String DEFAULT_USER = "sa";
+    public static final Path DEFAULT_FILE = Path.of("database.properties");
+
+    public enum Dialect {
+        MYSQL, H2;
+
+        static Dialect of(String url) {
+            if (url.startsWith("jdbc:mysql:")) {
+                return MYSQL;
+            } else if (url.startsWith("jdbc:h2:")) {
+                return H2;
+            }
+            throw new IllegalArgumentException("Unsupported database URL: " + url);
+        }
+
+        // Monthly partitions of Purchase_History (see PurchasePartitions)
+        public boolean supportsPartitioning() {
+            return this == MYSQL;
+        }
+
+        // Server-wide named locks (GET_LOCK), used to serialise schema migrations
+        public boolean supportsNamedLocks() {
+            return this == MYSQL;
+        }
+
+        // Subdirectory of sql/migrations with this dialect's migrations
+        public String directoryName() {
+            return name().toLowerCase();
+        }
+    }
+
+    public DatabaseConfig {
+        Dialect.of(url);
+    }
+
+    // In-process H2 database that lives as long as the JVM, e.g. for tests and benchmarks
+    public static DatabaseConfig inMemory(String name) {
+        return new DatabaseConfig("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", DEFAULT_USER, "");
+    }
+
+    public static DatabaseConfig load() {
+        Properties properties = new Properties();
+        Path file = Path.of(System.getProperty("inventory.db.config", DEFAULT_FILE.toString()));
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read database settings from " + file, e);
+            }
+        }
+        return new DatabaseConfig(
+                setting(properties, "db.url", "INVENTORY_DB_URL", DEFAULT_URL),
+                setting(properties, "db.user", "INVENTORY_DB_USER", DEFAULT_USER),
+                setting(properties, "db.password", "INVENTORY_DB_PASSWORD", ""));
+    }
+
+    public Dialect dialect() {
+        return Dialect.of(url);
+    }
+
+    // Never prints the password
+    @Override
+    public String toString() {
+        return "DatabaseConfig[url=" + url + ", user=" + user + "]";
+    }
+
+    private static String setting(Properties properties, String key, String variable, String fallback) {
+        String value = System.getenv(variable);
+        if (value == null || value.isEmpty()) {
+            value = properties.getProperty(key);
+        }
+        return value == null ? fallback : value;
+    }
+}
@@ -1,26 +1,74 @@
 package model;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/inventory_management";
-     private static final String USER = "root"; 
-     private static final String PASSWORD = "sct221-0275/2022";
+     // URL and credentials come from database.properties or the environment (see DatabaseConfig)
+     private static DatabaseConfig config;
 
-     private static Connection connection;
+     // Pool sizing and timeouts
+     private static final int MIN_POOL_SIZE = 2;
+     private static final int MAX_POOL_SIZE = 10;
+     private static final long ACQUIRE_TIMEOUT_MS = 10_000;
+     private static final long IDLE_TIMEOUT_MS = 5 * 60_000;
+     private static final long LEAK_THRESHOLD_MS = 60_000;
 
+     // Rows fetched per round trip by streaming queries
+     public static final int STREAM_FETCH_SIZE = 500;
+
+     private static ConnectionPool pool;
+
+     // Use these settings instead of the configured ones, e.g. DatabaseConfig.inMemory() in tests.
+     // Only possible before the first connection is opened.
+     public static synchronized void configure(DatabaseConfig databaseConfig) {
+        if (pool != null) {
+            throw new IllegalStateException("Database already in use with " + config);
+        }
+        config = databaseConfig;
+     }
+
+     public static synchronized DatabaseConfig getConfig() {
+        if (config == null) {
+            config = DatabaseConfig.load();
+        }
+        return config;
+     }
+
+     // Upper bound on connections in use at the same time
+     public static int getMaxPoolSize() {
+        return MAX_POOL_SIZE;
+     }
+
+     // Borrow a pooled connection; closing it returns it to the pool
      public static Connection getConnection() throws SQLException{
-        if(connection == null || connection.isClosed() ){
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().borrow();
+     }
+
+     public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            DatabaseConfig settings = getConfig();
+            pool = new ConnectionPool(settings.url(), settings.user(), settings.password(), MIN_POOL_SIZE, MAX_POOL_SIZE,
+                    ACQUIRE_TIMEOUT_MS, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS);
         }
-        return connection;
+        return pool;
      }
-      
-     public static void closedConnection() throws SQLException{
-        if(connection != null && !connection.isClosed()){
-            connection.close();
+
+     // Forward-only, read-only statement with a fetch size so the driver pulls rows in chunks
+     // instead of buffering the whole result set in memory
+     public static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(STREAM_FETCH_SIZE);
+        return pstmt;
+     }
+
+     // Close all pooled connections, e.g. when the application exits
+     public static synchronized void closedConnection() throws SQLException{
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
         }
      }
     }
@@ -0,0 +1,290 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Streams a CSV/TSV file into the database in three stages:
+//   reader (caller thread)  -> reads the file line by line and cuts it into chunks
+//   parsers (worker pool)   -> split, convert and validate each chunk in parallel
+//   writer (single thread)  -> inserts parsed chunks in file order with JDBC batching
+// Chunks in flight are bounded by a queue, so a slow database makes the reader wait
+// instead of filling the heap, and files of any size use the same amount of memory.
+public class DelimitedImporter<T> {
+    public static final int DEFAULT_CHUNK_LINES = 2_000;
+    public static final int DEFAULT_MAX_CHUNKS_IN_FLIGHT = 8;
+
+    // Turns the fields of one line into a row; throw IllegalArgumentException to reject the line
+    @FunctionalInterface
+    public interface RowParser<T> {
+        T parse(String[] fields);
+    }
+
+    // Persists one parsed chunk
+    @FunctionalInterface
+    public interface RowWriter<T> {
+        void write(List<T> rows) throws SQLException;
+    }
+
+    private final RowParser<T> parser;
+    private final RowWriter<T> writer;
+    private final int expectedFields;
+    private int chunkLines = DEFAULT_CHUNK_LINES;
+    private int maxChunksInFlight = DEFAULT_MAX_CHUNKS_IN_FLIGHT;
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+
+    public DelimitedImporter(int expectedFields, RowParser<T> parser, RowWriter<T> writer) {
+        this.expectedFields = expectedFields;
+        this.parser = parser;
+        this.writer = writer;
+    }
+
+    public DelimitedImporter<T> chunkLines(int chunkLines) {
+        this.chunkLines = chunkLines;
+        return this;
+    }
+
+    public DelimitedImporter<T> maxChunksInFlight(int maxChunksInFlight) {
+        this.maxChunksInFlight = maxChunksInFlight;
+        return this;
+    }
+
+    public DelimitedImporter<T> parserThreads(int parserThreads) {
+        this.parserThreads = parserThreads;
+        return this;
+    }
+
+    // Import the file; the first line is treated as a header when hasHeader is true
+    public ImportReport run(Path file, char delimiter, boolean hasHeader) throws IOException, SQLException {
+        ImportReport report = new ImportReport(file);
+        BlockingQueue<CompletableFuture<ParsedChunk<T>>> pending = new ArrayBlockingQueue<>(maxChunksInFlight);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, daemon("import-parser"));
+
+        Thread writerThread = new Thread(() -> drain(pending, report, failure), "import-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            boolean headerSkipped = hasHeader && reader.readLine() != null;
+            if (headerSkipped) {
+                lineNumber++;
+            }
+            List<String> lines = new ArrayList<>(chunkLines);
+            long firstLine = lineNumber + 1;
+            String line;
+            while ((line = reader.readLine()) != null && failure.get() == null) {
+                lineNumber++;
+                lines.add(line);
+                if (lines.size() == chunkLines) {
+                    submit(lines, firstLine, delimiter, parsers, pending, failure);
+                    lines = new ArrayList<>(chunkLines);
+                    firstLine = lineNumber + 1;
+                }
+            }
+            if (!lines.isEmpty() && failure.get() == null) {
+                submit(lines, firstLine, delimiter, parsers, pending, failure);
+            }
+            report.setLinesRead(lineNumber - (headerSkipped ? 1 : 0));
+        } finally {
+            // An empty future tells the writer that no more chunks are coming
+            enqueue(pending, CompletableFuture.completedFuture(null), failure);
+            parsers.shutdown();
+            join(writerThread);
+        }
+
+        Exception error = failure.get();
+        if (error instanceof SQLException) {
+            throw (SQLException) error;
+        } else if (error != null) {
+            throw new SQLException("Import of " + file + " failed: " + error.getMessage(), error);
+        }
+        report.finish();
+        return report;
+    }
+
+    private void submit(List<String> lines, long firstLine, char delimiter, ExecutorService parsers,
+            BlockingQueue<CompletableFuture<ParsedChunk<T>>> pending, AtomicReference<Exception> failure) {
+        CompletableFuture<ParsedChunk<T>> parsed = CompletableFuture.supplyAsync(
+                () -> parseChunk(lines, firstLine, delimiter), parsers);
+        enqueue(pending, parsed, failure);
+    }
+
+    // Blocks while the queue is full, which is what throttles the reader to the writer's pace
+    private void enqueue(BlockingQueue<CompletableFuture<ParsedChunk<T>>> pending,
+            CompletableFuture<ParsedChunk<T>> chunk, AtomicReference<Exception> failure) {
+        try {
+            while (!pending.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    pending.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private ParsedChunk<T> parseChunk(List<String> lines, long firstLine, char delimiter) {
+        ParsedChunk<T> chunk = new ParsedChunk<>(lines.size());
+        long lineNumber = firstLine;
+        for (String line : lines) {
+            if (!line.isBlank()) {
+                try {
+                    String[] fields = split(line, delimiter);
+                    if (fields.length != expectedFields) {
+                        throw new IllegalArgumentException("expected " + expectedFields + " fields but found " + fields.length);
+                    }
+                    chunk.rows.add(parser.parse(fields));
+                } catch (IllegalArgumentException e) {
+                    chunk.rejects.add(new ImportReport.RejectedLine(lineNumber, e.getMessage()));
+                }
+            }
+            lineNumber++;
+        }
+        return chunk;
+    }
+
+    private void drain(BlockingQueue<CompletableFuture<ParsedChunk<T>>> pending, ImportReport report,
+            AtomicReference<Exception> failure) {
+        try {
+            while (true) {
+                ParsedChunk<T> chunk = pending.take().get();
+                if (chunk == null) {
+                    return;
+                }
+                if (failure.get() != null) {
+                    continue;
+                }
+                if (!chunk.rows.isEmpty()) {
+                    writer.write(chunk.rows);
+                }
+                report.addImported(chunk.rows.size());
+                report.addRejected(chunk.rejects);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (ExecutionException e) {
+            // A parser may also fail with an Error; it is wrapped so failure is always set and the
+            // reader stops instead of waiting forever on a full queue
+            Throwable cause = e.getCause();
+            failure.compareAndSet(null, cause instanceof Exception ? (Exception) cause : new Exception(cause));
+            drainRemaining(pending);
+        } catch (SQLException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+            // Keep taking futures so the reader is never left blocked on a full queue
+            drainRemaining(pending);
+        }
+    }
+
+    private void drainRemaining(BlockingQueue<CompletableFuture<ParsedChunk<T>>> pending) {
+        try {
+            while (pending.take().get() != null) {
+                // discard
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // already failing
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Split one line, honouring double-quoted fields ("a, b" and "" escapes).
+    // Quoted fields may not span several lines.
+    public static String[] split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields.toArray(new String[0]);
+    }
+
+    // Tab for .tsv files, comma for anything else
+    public static char delimiterFor(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+    }
+
+    // Load a single integer ID column into memory for foreign key checks
+    public static Set<Integer> loadIds(String sql) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = DatabaseConnection.prepareStreaming(conn, sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private static final class ParsedChunk<T> {
+        private final List<T> rows;
+        private final List<ImportReport.RejectedLine> rejects = new ArrayList<>();
+
+        private ParsedChunk(int size) {
+            this.rows = new ArrayList<>(size);
+        }
+    }
+}
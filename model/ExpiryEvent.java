@@ -0,0 +1,12 @@
+package model;
+
+// A batch coming within the warning window of its expiry date, or passing it
+public record ExpiryEvent(Type type, BatchRecord batch) {
+
+    public enum Type {
+        // Expires today or within the warning window
+        EXPIRING,
+        // The expiry date has passed
+        EXPIRED
+    }
+}
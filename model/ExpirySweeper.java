@@ -0,0 +1,69 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Runs BatchExpiryIndex.sweep() on a daemon thread: once at start and then every period. A sweep
+// only looks at dates that came into range since the previous one, so running it often is cheap
+// and a new day is picked up within one period of midnight.
+public class ExpirySweeper {
+    private static final Logger LOG = Logger.getLogger(ExpirySweeper.class.getName());
+    public static final int DEFAULT_WARNING_DAYS = 7;
+    public static final long DEFAULT_PERIOD_MINUTES = 15;
+
+    private final BatchExpiryIndex index;
+    private final int warningDays;
+    private final long periodMinutes;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> task;
+
+    public ExpirySweeper(BatchExpiryIndex index) {
+        this(index, DEFAULT_WARNING_DAYS, DEFAULT_PERIOD_MINUTES);
+    }
+
+    public ExpirySweeper(BatchExpiryIndex index, int warningDays, long periodMinutes) {
+        this.index = index;
+        this.warningDays = warningDays;
+        this.periodMinutes = periodMinutes;
+    }
+
+    public int getWarningDays() {
+        return warningDays;
+    }
+
+    // Start sweeping; the index must be loaded. Later calls return immediately.
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        task = scheduler.scheduleAtFixedRate(this::sweep, 0, periodMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            scheduler.shutdown();
+            task = null;
+            scheduler = null;
+        }
+    }
+
+    private void sweep() {
+        try {
+            index.sweep(LocalDate.now(), warningDays);
+        } catch (RuntimeException e) {
+            // An exception would cancel every later run of a fixed-rate task
+            LOG.log(Level.WARNING, "Expiry sweep failed", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package model;
+
+import java.nio.file.Path;
+
+// Throughput summary of one export run
+public record ExportStats(Path file, long rows, long bytes, long elapsedNanos) {
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double megabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes / 1_048_576.0 * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Exported %d rows to %s (%d bytes) in %d ms: %.0f rows/sec, %.1f MB/sec",
+                rows, file.getFileName(), bytes, elapsedNanos / 1_000_000, rowsPerSecond(), megabytesPerSecond());
+    }
+}
@@ -0,0 +1,83 @@
+package model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a DelimitedImporter run: throughput plus the lines that were rejected
+public class ImportReport {
+    // Only the first rejects are kept with their reason; the rest are just counted
+    private static final int MAX_KEPT_REJECTS = 1_000;
+
+    public record RejectedLine(long lineNumber, String reason) {
+    }
+
+    private final Path file;
+    private final long startNanos = System.nanoTime();
+    private long elapsedNanos;
+    private long linesRead;
+    private long rowsImported;
+    private long rejectedCount;
+    private final List<RejectedLine> rejectedLines = new ArrayList<>();
+
+    public ImportReport(Path file) {
+        this.file = file;
+    }
+
+    synchronized void setLinesRead(long linesRead) {
+        this.linesRead = linesRead;
+    }
+
+    synchronized void addImported(long rows) {
+        rowsImported += rows;
+    }
+
+    synchronized void addRejected(List<RejectedLine> rejects) {
+        rejectedCount += rejects.size();
+        for (RejectedLine reject : rejects) {
+            if (rejectedLines.size() >= MAX_KEPT_REJECTS) {
+                break;
+            }
+            rejectedLines.add(reject);
+        }
+    }
+
+    synchronized void finish() {
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized long getLinesRead() {
+        return linesRead;
+    }
+
+    public synchronized long getRowsImported() {
+        return rowsImported;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public synchronized List<RejectedLine> getRejectedLines() {
+        return Collections.unmodifiableList(new ArrayList<>(rejectedLines));
+    }
+
+    public synchronized long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public synchronized double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsImported * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Imported %d of %d rows from %s in %d ms (%.0f rows/sec), %d rejected",
+                rowsImported, linesRead, file.getFileName(), getElapsedMillis(), getRowsPerSecond(), rejectedCount);
+    }
+}
@@ -0,0 +1,32 @@
+package model;
+
+import java.sql.SQLException;
+
+// Thrown when an allocation asks for more of a product than its unexpired batches, or its
+// quantity in stock, can supply. Nothing is allocated when this is thrown.
+public class InsufficientStockException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    private final int productId;
+    private final int requested;
+    private final int available;
+
+    public InsufficientStockException(int productId, int requested, int available) {
+        super("Product " + productId + ": requested " + requested + " but only " + available + " available.");
+        this.productId = productId;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+}
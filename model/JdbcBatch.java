@@ -0,0 +1,156 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+// Shared addBatch/executeBatch plumbing for the models' bulk write methods.
+// Rows are sent in chunks and every chunk is committed in its own transaction, so a
+// failure rolls back only the chunk in progress; chunks committed before it stay written, and
+// their rows have already been handed their generated keys when the failure is thrown.
+public final class JdbcBatch {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    // Binds one row's values to the prepared statement
+    @FunctionalInterface
+    public interface Binder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    // Extra work done in each chunk's transaction just before its statements run, e.g. keeping
+    // derived tables in step; throwing rolls the chunk back
+    @FunctionalInterface
+    public interface ChunkHook<T> {
+        void apply(Connection conn, List<T> chunk) throws SQLException;
+    }
+
+    // Receives the generated key of every row of a chunk once that chunk is committed
+    @FunctionalInterface
+    public interface KeyHandler<T> {
+        void accept(T row, int key);
+    }
+
+    private JdbcBatch() {
+    }
+
+    // Insert every row and return the generated keys in the same order as the rows
+    public static <T> List<Integer> insert(String sql, Collection<T> rows, int chunkSize, Binder<T> binder) throws SQLException {
+        return insert(sql, rows, chunkSize, binder, null, null);
+    }
+
+    // As above, and pass each row's key to keyHandler as soon as its chunk is committed
+    public static <T> List<Integer> insert(String sql, Collection<T> rows, int chunkSize, Binder<T> binder,
+            KeyHandler<T> keyHandler) throws SQLException {
+        return insert(sql, rows, chunkSize, binder, null, keyHandler);
+    }
+
+    public static <T> List<Integer> insert(String sql, Collection<T> rows, int chunkSize, Binder<T> binder,
+            ChunkHook<T> hook, KeyHandler<T> keyHandler) throws SQLException {
+        List<Integer> keys = new ArrayList<>(rows.size());
+        run(sql, rows, chunkSize, binder, hook, keyHandler, true, keys, null);
+        return keys;
+    }
+
+    // Run an UPDATE/DELETE for every row and return the total number of affected rows
+    public static <T> int update(String sql, Collection<T> rows, int chunkSize, Binder<T> binder) throws SQLException {
+        return update(sql, rows, chunkSize, binder, null);
+    }
+
+    public static <T> int update(String sql, Collection<T> rows, int chunkSize, Binder<T> binder,
+            ChunkHook<T> hook) throws SQLException {
+        int affected = 0;
+        int[] counts = new int[rows.size()];
+        run(sql, rows, chunkSize, binder, hook, null, false, null, counts);
+        for (int count : counts) {
+            affected += count;
+        }
+        return affected;
+    }
+
+    // Run an UPDATE/DELETE for every row and return the affected-row count of each row, in order
+    public static <T> int[] updateEach(String sql, Collection<T> rows, int chunkSize, Binder<T> binder) throws SQLException {
+        int[] counts = new int[rows.size()];
+        run(sql, rows, chunkSize, binder, null, null, false, null, counts);
+        return counts;
+    }
+
+    private static <T> void run(String sql, Collection<T> rows, int chunkSize, Binder<T> binder, ChunkHook<T> hook,
+            KeyHandler<T> keyHandler, boolean returnKeys, List<Integer> keys, int[] counts) throws SQLException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        int row = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = returnKeys
+                        ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                        : conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext()) {
+                int inChunk = 0;
+                List<T> chunk = hook == null && keyHandler == null ? null : new ArrayList<>(Math.min(chunkSize, rows.size()));
+                List<Integer> chunkKeys = returnKeys ? new ArrayList<>(Math.min(chunkSize, rows.size())) : null;
+                try {
+                    while (it.hasNext() && inChunk < chunkSize) {
+                        T next = it.next();
+                        binder.bind(pstmt, next);
+                        pstmt.addBatch();
+                        inChunk++;
+                        if (chunk != null) {
+                            chunk.add(next);
+                        }
+                    }
+                    if (hook != null) {
+                        hook.apply(conn, chunk);
+                    }
+                    for (int count : pstmt.executeBatch()) {
+                        // SUCCESS_NO_INFO means the driver could not report a count for that row
+                        if (counts != null) {
+                            counts[row] = count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                        }
+                        row++;
+                    }
+                    if (returnKeys) {
+                        readKeys(pstmt, inChunk, chunkKeys);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+                // Only keys of committed rows are handed out
+                if (returnKeys) {
+                    keys.addAll(chunkKeys);
+                    if (keyHandler != null) {
+                        for (int i = 0; i < inChunk; i++) {
+                            keyHandler.accept(chunk.get(i), chunkKeys.get(i));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void readKeys(PreparedStatement pstmt, int expected, List<Integer> keys) throws SQLException {
+        int read = 0;
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            while (generatedKeys.next()) {
+                keys.add(generatedKeys.getInt(1));
+                read++;
+            }
+        }
+        if (read != expected) {
+            throw new SQLException("Expected " + expected + " generated keys but the driver returned " + read + ".");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Products whose low-stock alert a user has acknowledged, stored in Low_Stock_Acknowledgements
+// so they stay acknowledged across restarts and for every user. The IDs are also kept in memory
+// (write-through) because notifications check them on every low-stock event.
+public final class LowStockAcknowledgements {
+    private static final Set<Integer> ACKNOWLEDGED = ConcurrentHashMap.newKeySet();
+    private static volatile boolean loaded;
+
+    private LowStockAcknowledgements() {
+    }
+
+    // Read the stored acknowledgements once; later calls return immediately
+    public static synchronized void load() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        String sql = "SELECT product_id FROM Low_Stock_Acknowledgements";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ACKNOWLEDGED.add(rs.getInt(1));
+            }
+        }
+        loaded = true;
+    }
+
+    public static boolean isAcknowledged(int product_id) {
+        return ACKNOWLEDGED.contains(product_id);
+    }
+
+    public static void acknowledge(int product_id) throws SQLException {
+        // Re-acknowledging only refreshes the timestamp
+        String sql = "INSERT INTO Low_Stock_Acknowledgements (product_id, acknowledged_at) VALUES (?, CURRENT_TIMESTAMP) "
+                + "ON DUPLICATE KEY UPDATE acknowledged_at = CURRENT_TIMESTAMP";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, product_id);
+            pstmt.executeUpdate();
+        }
+        ACKNOWLEDGED.add(product_id);
+    }
+
+    // Withdraw an acknowledgement, e.g. once the product is restocked so it alerts again next time
+    public static void clear(int product_id) throws SQLException {
+        if (loaded && !ACKNOWLEDGED.contains(product_id)) {
+            return;
+        }
+        String sql = "DELETE FROM Low_Stock_Acknowledgements WHERE product_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, product_id);
+            pstmt.executeUpdate();
+        }
+        ACKNOWLEDGED.remove(product_id);
+    }
+}
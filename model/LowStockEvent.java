@@ -0,0 +1,14 @@
+package model;
+
+// A product crossing its reorder level, or changing while below it
+public record LowStockEvent(Type type, ProductRecord product) {
+
+    public enum Type {
+        // Stock fell below the reorder level
+        ENTERED,
+        // Still below the reorder level, but quantity or details changed
+        CHANGED,
+        // Restocked, reorder level lowered, or the product was deleted
+        LEFT
+    }
+}
@@ -0,0 +1,128 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Keeps the set of products below their reorder level up to date without polling. The table
+// is scanned once on start(); after that every change from the Product write path re-evaluates
+// just that product and publishes ENTERED / CHANGED / LEFT events to subscribers.
+public class LowStockMonitor implements ProductEvents.Listener {
+    private static final Logger LOG = Logger.getLogger(LowStockMonitor.class.getName());
+
+    public interface Listener {
+        // Called while the monitor is locked; hand the event off (e.g. Platform.runLater) and return
+        void lowStockChanged(LowStockEvent event);
+    }
+
+    // product ID -> latest row of every product currently below its reorder level
+    private final Map<Integer, ProductRecord> lowStock = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    // Products changed while the initial scan was running; the scan's copy of those is stale
+    private final Set<Integer> changedDuringStart = ConcurrentHashMap.newKeySet();
+    private final Object startLock = new Object();
+    private volatile boolean started;
+    private volatile boolean starting;
+
+    // Subscribe to product changes and read the current low-stock products; later calls return immediately
+    public void start() throws SQLException {
+        synchronized (startLock) {
+            if (started) {
+                return;
+            }
+            starting = true;
+            ProductEvents.subscribe(this);
+            try {
+                List<ProductRecord> initial = Product.fetchLowStockRecords();
+                synchronized (this) {
+                    for (ProductRecord product : initial) {
+                        if (!changedDuringStart.contains(product.productId())) {
+                            lowStock.put(product.productId(), product);
+                        }
+                    }
+                }
+                started = true;
+            } catch (SQLException | RuntimeException e) {
+                ProductEvents.unsubscribe(this);
+                lowStock.clear();
+                throw e;
+            } finally {
+                starting = false;
+                changedDuringStart.clear();
+            }
+        }
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    // Register a listener and return the low-stock products at that moment. Every change after
+    // the snapshot reaches the listener and none before it does, so snapshot + events stay exact.
+    public synchronized List<ProductRecord> subscribe(Listener listener) {
+        listeners.add(listener);
+        return snapshot();
+    }
+
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized List<ProductRecord> snapshot() {
+        return new ArrayList<>(lowStock.values());
+    }
+
+    public boolean isLowStock(int product_id) {
+        return lowStock.containsKey(product_id);
+    }
+
+    public int size() {
+        return lowStock.size();
+    }
+
+    @Override
+    public synchronized void productChanged(ProductRecord product) {
+        if (starting) {
+            changedDuringStart.add(product.productId());
+        }
+        ProductRecord previous = lowStock.get(product.productId());
+        if (previous != null && previous.version() > product.version()) {
+            return; // an older write reported late
+        }
+        boolean low = product.quantityInStock() < product.reorderLevel();
+        if (low) {
+            lowStock.put(product.productId(), product);
+            fire(new LowStockEvent(previous == null ? LowStockEvent.Type.ENTERED : LowStockEvent.Type.CHANGED, product));
+        } else if (previous != null) {
+            lowStock.remove(product.productId());
+            fire(new LowStockEvent(LowStockEvent.Type.LEFT, product));
+        }
+    }
+
+    @Override
+    public synchronized void productDeleted(int product_id) {
+        if (starting) {
+            changedDuringStart.add(product_id);
+        }
+        ProductRecord previous = lowStock.remove(product_id);
+        if (previous != null) {
+            fire(new LowStockEvent(LowStockEvent.Type.LEFT, previous));
+        }
+    }
+
+    private void fire(LowStockEvent event) {
+        for (Listener listener : listeners) {
+            try {
+                listener.lowStockChanged(event);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Low-stock listener failed for product " + event.product().productId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+// Thrown when an update finds that the row's version no longer matches the one that was read,
+// i.e. someone else changed or deleted the row in the meantime
+public class OptimisticLockException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    private final String table;
+    // Kept as an array so the exception stays serializable
+    private final int[] ids;
+
+    public OptimisticLockException(String table, List<Integer> ids) {
+        super(table + " " + (ids.size() == 1 ? "row " + ids.get(0) + " was" : "rows " + ids + " were")
+                + " changed by someone else since it was loaded.");
+        this.table = table;
+        this.ids = ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public OptimisticLockException(String table, int id) {
+        this(table, List.of(id));
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    // IDs of the rows whose update was rejected
+    public List<Integer> getIds() {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
@@ -0,0 +1,6 @@
+package model;
+
+// Position of a row in a sorted, paged query: the value of the sort column plus the row's ID,
+// which breaks ties so rows with equal sort values are never skipped or repeated between pages
+public record PageKey(Object sortValue, int id) {
+}
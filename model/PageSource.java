@@ -0,0 +1,21 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// Windowed read access to a large, ordered table, for views that only show part of it at a time.
+// K is whatever identifies a row's position in the order (e.g. its primary key), so the next
+// page can be read with a keyset query instead of an ever-growing OFFSET.
+public interface PageSource<T, K> {
+    // Total number of rows
+    int count() throws SQLException;
+
+    // Up to limit rows that sort after the row with the given key; null means from the start
+    List<T> fetchAfter(K key, int limit) throws SQLException;
+
+    // Up to limit rows starting at a row offset; used when jumping to a page whose predecessor is unknown
+    List<T> fetchAt(int offset, int limit) throws SQLException;
+
+    // Key of a row, passed back to fetchAfter to read the page that follows it
+    K keyOf(T row);
+}
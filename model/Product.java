@@ -5,7 +5,16 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -13,14 +22,14 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
 public class Product {
-    private final IntegerProperty productIdProperty;
-    private final StringProperty nameProperty;
-    private final IntegerProperty categoryIdProperty;
-    private final StringProperty skuProperty;
-    private final IntegerProperty quantityInStockProperty;
-    private final IntegerProperty reorderLevelProperty;
-    private final IntegerProperty supplierIdProperty;
-    private final IntegerProperty batchIdProperty;
+    private IntegerProperty productIdProperty;
+    private StringProperty nameProperty;
+    private IntegerProperty categoryIdProperty;
+    private StringProperty skuProperty;
+    private IntegerProperty quantityInStockProperty;
+    private IntegerProperty reorderLevelProperty;
+    private IntegerProperty supplierIdProperty;
+    private IntegerProperty batchIdProperty;
 
     private int product_id;
     private String name;
@@ -30,6 +39,8 @@ public class Product {
     private int reorder_level;
     private int supplier_id;
     private int batch_id;
+    // Row version read from the database; updates only succeed while it is unchanged
+    private int version;
 
     // Constructor
     public Product(int product_id, String name, int category_id, String sku, int quantity_in_stock, int reorder_level, int supplier_id, int batch_id) {
@@ -42,62 +53,80 @@ public class Product {
         this.reorder_level = reorder_level;
         this.supplier_id = supplier_id;
         this.batch_id = batch_id;
-
-        // Initialize JavaFX properties and sync with standard fields
-        this.productIdProperty = new SimpleIntegerProperty(product_id);
-        this.nameProperty = new SimpleStringProperty(name);
-        this.categoryIdProperty = new SimpleIntegerProperty(category_id);
-        this.skuProperty = new SimpleStringProperty(sku);
-        this.quantityInStockProperty = new SimpleIntegerProperty(quantity_in_stock);
-        this.reorderLevelProperty = new SimpleIntegerProperty(reorder_level);
-        this.supplierIdProperty = new SimpleIntegerProperty(supplier_id);
-        this.batchIdProperty = new SimpleIntegerProperty(batch_id);
-
-        // Add listeners to sync changes between standard fields and properties
-        addPropertyListeners();
     }
 
-    private void addPropertyListeners() {
-        nameProperty.addListener((obs, oldVal, newVal) -> this.name = newVal);
-        skuProperty.addListener((obs, oldVal, newVal) -> this.sku = newVal);
-        categoryIdProperty.addListener((obs, oldVal, newVal) -> this.category_id = newVal.intValue());
-        quantityInStockProperty.addListener((obs, oldVal, newVal) -> this.quantity_in_stock = newVal.intValue());
-        reorderLevelProperty.addListener((obs, oldVal, newVal) -> this.reorder_level = newVal.intValue());
-        supplierIdProperty.addListener((obs, oldVal, newVal) -> this.supplier_id = newVal.intValue());
-        batchIdProperty.addListener((obs, oldVal, newVal) -> this.batch_id = newVal.intValue());
+    public Product(ProductRecord record) {
+        this(record.productId(), record.name(), record.categoryId(), record.sku(), record.quantityInStock(),
+                record.reorderLevel(), record.supplierId(), record.batchId());
+        this.version = record.version();
+    }
 
+    // Immutable snapshot of this product without any JavaFX state
+    public ProductRecord toRecord() {
+        return new ProductRecord(product_id, name, category_id, sku, quantity_in_stock, reorder_level, supplier_id, batch_id, version);
     }
 
-    // Property getters for JavaFX binding
+    // Property getters for JavaFX binding; each property is only created when a view binds to it
     public IntegerProperty productIdProperty() {
+        if (productIdProperty == null) {
+            productIdProperty = new SimpleIntegerProperty(product_id);
+        }
         return productIdProperty;
     }
 
     public StringProperty nameProperty() {
+        if (nameProperty == null) {
+            nameProperty = new SimpleStringProperty(name);
+            nameProperty.addListener((obs, oldVal, newVal) -> this.name = newVal);
+        }
         return nameProperty;
     }
 
     public IntegerProperty categoryIdProperty() {
+        if (categoryIdProperty == null) {
+            categoryIdProperty = new SimpleIntegerProperty(category_id);
+            categoryIdProperty.addListener((obs, oldVal, newVal) -> this.category_id = newVal.intValue());
+        }
         return categoryIdProperty;
     }
 
     public StringProperty skuProperty() {
+        if (skuProperty == null) {
+            skuProperty = new SimpleStringProperty(sku);
+            skuProperty.addListener((obs, oldVal, newVal) -> this.sku = newVal);
+        }
         return skuProperty;
     }
 
     public IntegerProperty quantityInStockProperty() {
+        if (quantityInStockProperty == null) {
+            quantityInStockProperty = new SimpleIntegerProperty(quantity_in_stock);
+            quantityInStockProperty.addListener((obs, oldVal, newVal) -> this.quantity_in_stock = newVal.intValue());
+        }
         return quantityInStockProperty;
     }
 
     public IntegerProperty reorderLevelProperty() {
+        if (reorderLevelProperty == null) {
+            reorderLevelProperty = new SimpleIntegerProperty(reorder_level);
+            reorderLevelProperty.addListener((obs, oldVal, newVal) -> this.reorder_level = newVal.intValue());
+        }
         return reorderLevelProperty;
     }
 
     public IntegerProperty supplierIdProperty() {
+        if (supplierIdProperty == null) {
+            supplierIdProperty = new SimpleIntegerProperty(supplier_id);
+            supplierIdProperty.addListener((obs, oldVal, newVal) -> this.supplier_id = newVal.intValue());
+        }
         return supplierIdProperty;
     }
 
     public IntegerProperty batchIdProperty() {
+        if (batchIdProperty == null) {
+            batchIdProperty = new SimpleIntegerProperty(batch_id);
+            batchIdProperty.addListener((obs, oldVal, newVal) -> this.batch_id = newVal.intValue());
+        }
         return batchIdProperty;
     }
 
@@ -109,7 +138,9 @@ public class Product {
 
     public void setProductId(int product_id) {
         this.product_id = product_id;
-        this.productIdProperty.set(product_id); // Sync with JavaFX property
+        if (this.productIdProperty != null) {
+            this.productIdProperty.set(product_id); // Sync with JavaFX property
+        }
     }
 
     public String getName() {
@@ -118,7 +149,9 @@ public class Product {
 
     public void setName(String name) {
         this.name = name;
-        this.nameProperty.set(name); // Sync with JavaFX property
+        if (this.nameProperty != null) {
+            this.nameProperty.set(name); // Sync with JavaFX property
+        }
     }
 
     public int getCategoryId() {
@@ -127,7 +160,9 @@ public class Product {
 
     public void setCategoryId(int category_id) {
         this.category_id = category_id;
-        this.categoryIdProperty.set(category_id); // Sync with JavaFX property
+        if (this.categoryIdProperty != null) {
+            this.categoryIdProperty.set(category_id); // Sync with JavaFX property
+        }
     }
 
     public int getBatchId() {
@@ -135,7 +170,9 @@ public class Product {
     }
     public void setBatchId(int batch_id) {
         this.batch_id = batch_id;
-        this.batchIdProperty.set(batch_id); // Sync with JavaFX property
+        if (this.batchIdProperty != null) {
+            this.batchIdProperty.set(batch_id); // Sync with JavaFX property
+        }
     }
 
     public String getSku() {
@@ -144,7 +181,9 @@ public class Product {
 
     public void setSku(String sku) {
         this.sku = sku;
-        this.skuProperty.set(sku); // Sync with JavaFX property
+        if (this.skuProperty != null) {
+            this.skuProperty.set(sku); // Sync with JavaFX property
+        }
     }
 
     public int getQuantityInStock() {
@@ -153,7 +192,9 @@ public class Product {
 
     public void setQuantityInStock(int quantity_in_stock) {
         this.quantity_in_stock = quantity_in_stock;
-        this.quantityInStockProperty.set(quantity_in_stock); // Sync with JavaFX property
+        if (this.quantityInStockProperty != null) {
+            this.quantityInStockProperty.set(quantity_in_stock); // Sync with JavaFX property
+        }
     }
 
     public int getReorderLevel() {
@@ -162,7 +203,13 @@ public class Product {
 
     public void setReorderLevel(int reorder_level) {
         this.reorder_level = reorder_level;
-        this.reorderLevelProperty.set(reorder_level); // Sync with JavaFX property
+        if (this.reorderLevelProperty != null) {
+            this.reorderLevelProperty.set(reorder_level); // Sync with JavaFX property
+        }
+    }
+
+    public int getVersion() {
+        return version;
     }
 
     public int getSupplierId() {
@@ -171,7 +218,9 @@ public class Product {
 
     public void setSupplierId(int supplier_id) {
         this.supplier_id = supplier_id;
-        this.supplierIdProperty.set(supplier_id); // Sync with JavaFX property
+        if (this.supplierIdProperty != null) {
+            this.supplierIdProperty.set(supplier_id); // Sync with JavaFX property
+        }
     }
 
 
@@ -179,7 +228,7 @@ public void save() throws SQLException{
     String sql = "INSERT INTO Products (name, category_id, sku, quantity_in_stock, reorder_level, supplier_id, batch_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
      
     try(Connection conn = DatabaseConnection.getConnection();
-    PreparedStatement pstmt = conn.prepareStatement(sql)){
+    PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)){
         pstmt.setString(1, name);
         pstmt.setInt(2, category_id);
         pstmt.setString(3, sku);
@@ -190,11 +239,20 @@ public void save() throws SQLException{
 
 
         pstmt.executeUpdate();
+
+        // Retrieve the generated ID so listeners and later updates know which row this is
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                setProductId(generatedKeys.getInt(1));
+            }
+        }
     }
+    ProductEvents.fireChanged(toRecord());
 }
 
+// Compare-and-set update: only succeeds if the row still has the version this object was loaded with
 public void update() throws SQLException{
-    String sql = "UPDATE Products SET name = ?, category_id = ?, sku = ?, quantity_in_stock = ?, reorder_level = ?, supplier_id = ?,batch_id = ? WHERE product_id = ?";
+    String sql = "UPDATE Products SET name = ?, category_id = ?, sku = ?, quantity_in_stock = ?, reorder_level = ?, supplier_id = ?, batch_id = ?, version = version + 1 WHERE product_id = ? AND version = ?";
 
     try(Connection conn = DatabaseConnection.getConnection();
     PreparedStatement pstmt = conn.prepareStatement(sql)){
@@ -204,10 +262,158 @@ public void update() throws SQLException{
         pstmt.setInt(4, quantity_in_stock);
         pstmt.setInt(5, reorder_level);
         pstmt.setInt(6, supplier_id);
-        pstmt.setInt(8, batch_id);
-        pstmt.setInt(7, product_id);
+        pstmt.setInt(7, batch_id);
+        pstmt.setInt(8, product_id);
+        pstmt.setInt(9, version);
 
-        pstmt.executeUpdate();
+        if (pstmt.executeUpdate() == 0) {
+            throw new OptimisticLockException("Products", product_id);
+        }
+        version++;
+    }
+    ProductEvents.fireChanged(toRecord());
+}
+
+// Insert many products with JDBC batching; the generated IDs are set on the products and returned in order.
+// If a later chunk fails, the products of the chunks already committed still get their IDs.
+public static List<Integer> saveAll(Collection<Product> products) throws SQLException {
+    return saveAll(products, JdbcBatch.DEFAULT_CHUNK_SIZE);
+}
+
+public static List<Integer> saveAll(Collection<Product> products, int chunkSize) throws SQLException {
+    String sql = "INSERT INTO Products (name, category_id, sku, quantity_in_stock, reorder_level, supplier_id, batch_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    return JdbcBatch.insert(sql, products, chunkSize, (pstmt, product) -> {
+        pstmt.setString(1, product.name);
+        pstmt.setInt(2, product.category_id);
+        pstmt.setString(3, product.sku);
+        pstmt.setInt(4, product.quantity_in_stock);
+        pstmt.setInt(5, product.reorder_level);
+        pstmt.setInt(6, product.supplier_id);
+        pstmt.setInt(7, product.batch_id);
+    }, (product, key) -> {
+        product.setProductId(key);
+        ProductEvents.fireChanged(product.toRecord());
+    });
+}
+
+// Update many products with JDBC batching; returns the number of rows updated.
+// Rows whose version changed are skipped and reported in an OptimisticLockException
+// after every other row has been written.
+public static int updateAll(Collection<Product> products) throws SQLException {
+    return updateAll(products, JdbcBatch.DEFAULT_CHUNK_SIZE);
+}
+
+public static int updateAll(Collection<Product> products, int chunkSize) throws SQLException {
+    String sql = "UPDATE Products SET name = ?, category_id = ?, sku = ?, quantity_in_stock = ?, reorder_level = ?, supplier_id = ?, batch_id = ?, version = version + 1 WHERE product_id = ? AND version = ?";
+    int[] counts = JdbcBatch.updateEach(sql, products, chunkSize, (pstmt, product) -> {
+        pstmt.setString(1, product.name);
+        pstmt.setInt(2, product.category_id);
+        pstmt.setString(3, product.sku);
+        pstmt.setInt(4, product.quantity_in_stock);
+        pstmt.setInt(5, product.reorder_level);
+        pstmt.setInt(6, product.supplier_id);
+        pstmt.setInt(7, product.batch_id);
+        pstmt.setInt(8, product.product_id);
+        pstmt.setInt(9, product.version);
+    });
+    List<Integer> conflicts = new ArrayList<>();
+    int i = 0;
+    for (Product product : products) {
+        if (counts[i++] == 1) {
+            product.version++;
+            ProductEvents.fireChanged(product.toRecord());
+        } else {
+            conflicts.add(product.product_id);
+        }
+    }
+    if (!conflicts.isEmpty()) {
+        throw new OptimisticLockException("Products", conflicts);
+    }
+    return products.size();
+}
+
+// Stock deltas also bump the version, so an editor holding a stale copy cannot write the old quantity back
+static final String STOCK_DELTA_SQL = "UPDATE Products SET quantity_in_stock = quantity_in_stock + ?, version = version + 1 WHERE product_id = ? AND quantity_in_stock + ? >= 0";
+
+// Atomically add delta (negative to remove stock) to one product's quantity in a single UPDATE,
+// so concurrent adjustments never overwrite each other. Returns false when the product does not
+// exist or the change would take the stock below zero.
+public static boolean adjustStock(int product_id, int delta) throws SQLException {
+    String sql = STOCK_DELTA_SQL;
+
+    try (Connection conn = DatabaseConnection.getConnection();
+    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setInt(1, delta);
+        pstmt.setInt(2, product_id);
+        pstmt.setInt(3, delta);
+
+        if (pstmt.executeUpdate() == 0) {
+            return false;
+        }
+    }
+    publishChanged(List.of(product_id));
+    return true;
+}
+
+// Apply several stock deltas (product_id -> delta) as one JDBC batch in one transaction.
+// Either every adjustment is applied or, if any product is missing or would go negative, none is.
+public static void adjustStock(Map<Integer, Integer> deltas) throws SQLException {
+    if (deltas.isEmpty()) {
+        return;
+    }
+    String sql = STOCK_DELTA_SQL;
+    // Update rows in ID order so concurrent multi-SKU adjustments lock rows in the same order
+    Map<Integer, Integer> ordered = new TreeMap<>(deltas);
+
+    try (Connection conn = DatabaseConnection.getConnection();
+    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        conn.setAutoCommit(false);
+        try {
+            for (Map.Entry<Integer, Integer> entry : ordered.entrySet()) {
+                pstmt.setInt(1, entry.getValue());
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setInt(3, entry.getValue());
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            List<Integer> rejected = new ArrayList<>();
+            int i = 0;
+            for (Integer product_id : ordered.keySet()) {
+                if (counts[i++] == 0) {
+                    rejected.add(product_id);
+                }
+            }
+            if (!rejected.isEmpty()) {
+                throw new SQLException("Stock adjustment rejected for products " + rejected + ": unknown product or insufficient stock.");
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+    publishChanged(ordered.keySet());
+}
+
+// Stock deltas are applied in SQL, so read the rows back to tell listeners the resulting quantities
+static void publishChanged(Collection<Integer> productIds) throws SQLException {
+    if (!ProductEvents.hasListeners() || productIds.isEmpty()) {
+        return;
+    }
+    String placeholders = String.join(", ", Collections.nCopies(productIds.size(), "?"));
+    String sql = "SELECT * FROM Products WHERE product_id IN (" + placeholders + ")";
+
+    try (Connection conn = DatabaseConnection.getConnection();
+            PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        int i = 1;
+        for (Integer product_id : productIds) {
+            pstmt.setInt(i++, product_id);
+        }
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ProductEvents.fireChanged(ProductRecord.from(rs));
+            }
+        }
     }
 }
 
@@ -220,6 +426,20 @@ public void delete() throws SQLException{
 
         pstmt.executeUpdate();
     }
+    ProductEvents.fireDeleted(product_id);
+}
+
+// Fetch a single product, or null if it does not exist
+public static Product fetchById(int product_id) throws SQLException {
+    String sql = "SELECT * FROM Products WHERE product_id = ?";
+
+    try (Connection conn = DatabaseConnection.getConnection();
+            PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setInt(1, product_id);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? fromResultSet(rs) : null;
+        }
+    }
 }
 
 public static List<Product> fetchAll() throws SQLException {
@@ -232,48 +452,144 @@ public static List<Product> fetchAll() throws SQLException {
             ResultSet rs = pstmt.executeQuery()) {
 
         while (rs.next()) {
-            Product product = new Product(
-                    rs.getInt("product_id"),
-                    rs.getString("name"),
-                    rs.getInt("category_id"),
-                    rs.getString("sku"),
-                    rs.getInt("quantity_in_stock"),
-                    rs.getInt("reorder_level"),
-                    rs.getInt("supplier_id"),
-                    rs.getInt("batch_id"));
+            products.add(fromResultSet(rs));
+        }
+    }
+    return products;
+
+}
+
+// Keyset pagination: the next `limit` products with an ID greater than afterProductId.
+// Pass 0 for the first page and the last product's ID for each following page.
+public static List<Product> fetchPage(int afterProductId, int limit) throws SQLException {
+    List<Product> products = new ArrayList<>(limit);
+    String sql = "SELECT * FROM Products WHERE product_id > ? ORDER BY product_id LIMIT ?";
 
-            products.add(product);
+    try (Connection conn = DatabaseConnection.getConnection();
+            PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setInt(1, afterProductId);
+        pstmt.setInt(2, limit);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                products.add(fromResultSet(rs));
+            }
         }
     }
     return products;
+}
 
+// Stream every product to the callback one row at a time without building a list
+public static void forEach(Consumer<Product> action) throws SQLException {
+    try (Connection conn = DatabaseConnection.getConnection();
+            PreparedStatement pstmt = DatabaseConnection.prepareStreaming(conn, "SELECT * FROM Products ORDER BY product_id");
+            ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+            action.accept(fromResultSet(rs));
+        }
+    }
+}
+
+// Lazily streamed catalog. The stream holds a pooled connection until it is closed,
+// so always consume it inside try-with-resources.
+public static Stream<Product> stream() throws SQLException {
+    Connection conn = DatabaseConnection.getConnection();
+    PreparedStatement pstmt = null;
+    try {
+        pstmt = DatabaseConnection.prepareStreaming(conn, "SELECT * FROM Products ORDER BY product_id");
+        ResultSet rs = pstmt.executeQuery();
+        PreparedStatement statement = pstmt;
+        Spliterator<Product> rows = new Spliterators.AbstractSpliterator<Product>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Product> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(fromResultSet(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to read product row", e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            // Closing an unfinished streaming result set can fail; the connection must still go
+            // back to the pool
+            try {
+                closeAll(rs, statement, conn);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to close product stream", e);
+            }
+        });
+    } catch (SQLException | RuntimeException e) {
+        try {
+            closeAll(pstmt, conn);
+        } catch (SQLException closeError) {
+            e.addSuppressed(closeError);
+        }
+        throw e;
+    }
+}
+
+// Close each resource in order (nulls are skipped), even when an earlier one fails to close;
+// the first failure is thrown with any later ones suppressed
+private static void closeAll(AutoCloseable... resources) throws SQLException {
+    SQLException failure = null;
+    for (AutoCloseable resource : resources) {
+        if (resource == null) {
+            continue;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            if (failure == null) {
+                failure = e instanceof SQLException ? (SQLException) e : new SQLException(e);
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+    if (failure != null) {
+        throw failure;
+    }
+}
+
+private static Product fromResultSet(ResultSet rs) throws SQLException {
+    return new Product(ProductRecord.from(rs));
 }
 
 
+// Products below their reorder level as plain records, for code that does not display them
+public static List<ProductRecord> fetchLowStockRecords() throws SQLException {
+    List<ProductRecord> products = new ArrayList<>();
+    // low_stock is the stored quantity_in_stock < reorder_level, read through idx_products_low_stock
+    String sql = "SELECT * FROM Products WHERE low_stock = TRUE";
+
+    try (Connection conn = DatabaseConnection.getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql);
+         ResultSet rs = pstmt.executeQuery()) {
+
+        while (rs.next()) {
+            products.add(ProductRecord.from(rs));
+        }
+    }
+    return products;
+}
+
 public static List<Product> fetchLowStock() throws SQLException {
     List<Product> products = new ArrayList<>();
-    String sql = "SELECT * FROM Products WHERE quantity_in_stock < reorder_level";  // Query products below reorder level
+    String sql = "SELECT * FROM Products WHERE low_stock = TRUE";  // Query products below reorder level
 
     try (Connection conn = DatabaseConnection.getConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql);
          ResultSet rs = pstmt.executeQuery()) {
 
         while (rs.next()) {
-            Product product = new Product(
-                rs.getInt("product_id"),
-                rs.getString("name"),
-                rs.getInt("category_id"),
-                rs.getString("sku"),
-                rs.getInt("quantity_in_stock"),
-                rs.getInt("reorder_level"),
-                rs.getInt("supplier_id"),
-                rs.getInt("batch_id"));
-
-            products.add(product);
+            products.add(fromResultSet(rs));
         }
     }
     return products;
 }
 
 }
-
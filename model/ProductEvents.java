@@ -0,0 +1,59 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Notifies in-memory views of the catalog (search index, low-stock state, ...) of every change
+// made through the Product write path, so they can update one product instead of re-reading the
+// table. Listeners run on the thread that made the change, after it was committed, and must be quick.
+public final class ProductEvents {
+    private static final Logger LOG = Logger.getLogger(ProductEvents.class.getName());
+
+    public interface Listener {
+        // The product was inserted, updated or had its stock adjusted; product is the row as written
+        void productChanged(ProductRecord product);
+
+        void productDeleted(int product_id);
+    }
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private ProductEvents() {
+    }
+
+    public static void subscribe(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void unsubscribe(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    // Lets writers skip reading back rows nobody is going to look at
+    static boolean hasListeners() {
+        return !LISTENERS.isEmpty();
+    }
+
+    static void fireChanged(ProductRecord product) {
+        for (Listener listener : LISTENERS) {
+            try {
+                listener.productChanged(product);
+            } catch (RuntimeException e) {
+                // A broken listener must not fail a write that has already been committed
+                LOG.log(Level.WARNING, "Product listener failed for product " + product.productId(), e);
+            }
+        }
+    }
+
+    static void fireDeleted(int product_id) {
+        for (Listener listener : LISTENERS) {
+            try {
+                listener.productDeleted(product_id);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Product listener failed for deleted product " + product_id, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Product table filter: name prefix, exact SKU, category and supplier, sorted by any NOT NULL
+// column. sku and batch_id may be NULL, which a keyset comparison never matches, so they are not
+// sortable: paging would stop at the first row without a value.
+public class ProductFilter extends TableFilter<Product> {
+    private static final Map<String, Function<Product, Object>> SORT_COLUMNS = Map.of(
+            "product_id", Product::getProductId,
+            "name", Product::getName,
+            "quantity_in_stock", Product::getQuantityInStock,
+            "reorder_level", Product::getReorderLevel,
+            "category_id", Product::getCategoryId,
+            "supplier_id", Product::getSupplierId);
+
+    private String namePrefix;
+    private String sku;
+    private Integer category_id;
+    private Integer supplier_id;
+
+    public ProductFilter() {
+        super("Products", "product_id");
+    }
+
+    public ProductFilter namePrefix(String namePrefix) {
+        this.namePrefix = blankToNull(namePrefix);
+        return this;
+    }
+
+    public ProductFilter sku(String sku) {
+        this.sku = blankToNull(sku);
+        return this;
+    }
+
+    public ProductFilter categoryId(Integer category_id) {
+        this.category_id = category_id;
+        return this;
+    }
+
+    public ProductFilter supplierId(Integer supplier_id) {
+        this.supplier_id = supplier_id;
+        return this;
+    }
+
+    @Override
+    protected Map<String, Function<Product, Object>> sortColumns() {
+        return SORT_COLUMNS;
+    }
+
+    @Override
+    protected void addConditions(List<String> conditions, List<Object> params) {
+        if (namePrefix != null) {
+            conditions.add("name LIKE ?");
+            params.add(prefixPattern(namePrefix));
+        }
+        if (sku != null) {
+            conditions.add("sku = ?");
+            params.add(sku);
+        }
+        if (category_id != null) {
+            conditions.add("category_id = ?");
+            params.add(category_id);
+        }
+        if (supplier_id != null) {
+            conditions.add("supplier_id = ?");
+            params.add(supplier_id);
+        }
+    }
+
+    @Override
+    protected Product read(ResultSet rs) throws SQLException {
+        return new Product(ProductRecord.from(rs));
+    }
+
+    @Override
+    protected int idOf(Product product) {
+        return product.getProductId();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
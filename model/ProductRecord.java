@@ -0,0 +1,22 @@
+package model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Immutable row of the Products table for code that never binds to the UI
+public record ProductRecord(int productId, String name, int categoryId, String sku,
+        int quantityInStock, int reorderLevel, int supplierId, int batchId, int version) {
+
+    public static ProductRecord from(ResultSet rs) throws SQLException {
+        return new ProductRecord(
+                rs.getInt("product_id"),
+                rs.getString("name"),
+                rs.getInt("category_id"),
+                rs.getString("sku"),
+                rs.getInt("quantity_in_stock"),
+                rs.getInt("reorder_level"),
+                rs.getInt("supplier_id"),
+                rs.getInt("batch_id"),
+                rs.getInt("version"));
+    }
+}
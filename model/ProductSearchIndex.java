@@ -0,0 +1,260 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BooleanSupplier;
+
+// In-memory search over product names and SKUs for search-as-you-type. Words of each name and
+// each SKU are kept in sorted maps, so a prefix lookup is a range scan that stops as soon as
+// enough matches are found (O(log n + results)) and never touches the database. The index is
+// filled once from the Products table and then kept current through ProductEvents.
+//   "blu wid"  -> products with a name word starting "blu" and another starting "wid"
+//   "SKU-12"   -> products whose SKU starts with "sku-12"
+public class ProductSearchIndex implements ProductEvents.Listener {
+    public static final int DEFAULT_LIMIT = 50;
+    // Terms are counted only up to here when picking the rarest one; a short first term such as
+    // "a" would otherwise be counted across most of the index before the search even starts
+    private static final int COUNT_CAP = 1_000;
+
+    // Lower-cased name word -> IDs of the products whose name contains it
+    private final ConcurrentSkipListMap<String, Set<Integer>> words = new ConcurrentSkipListMap<>();
+    // Lower-cased SKU + '\0' + product ID -> product ID; the ID suffix keeps duplicate SKUs apart
+    private final ConcurrentSkipListMap<String, Integer> skus = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Entry> products = new ConcurrentHashMap<>();
+    // Products deleted while the initial load was running, so the load does not bring them back
+    private final Set<Integer> deletedDuringLoad = ConcurrentHashMap.newKeySet();
+    // Held for the whole initial load; separate from the index lock so writers are never stalled by it
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+    private volatile boolean loading;
+
+    // Subscribe to product changes and read the whole catalog once; later calls return immediately.
+    // Changes made while the catalog is being read are not lost: newer versions always win.
+    public void load() throws SQLException {
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            loading = true;
+            ProductEvents.subscribe(this);
+            try {
+                Product.forEach(product -> {
+                    if (!deletedDuringLoad.contains(product.getProductId())) {
+                        put(product.toRecord());
+                    }
+                });
+                loaded = true;
+            } catch (SQLException | RuntimeException e) {
+                ProductEvents.unsubscribe(this);
+                clear();
+                throw e;
+            } finally {
+                loading = false;
+                deletedDuringLoad.clear();
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    // Up to limit products matching the query: SKU prefix matches first, then name matches
+    // ordered by the matched word
+    public List<ProductRecord> search(String query, int limit) {
+        return search(query, limit, () -> false);
+    }
+
+    // As above, but stops scanning as soon as cancelled returns true (or the thread is
+    // interrupted), e.g. once the user has typed on and the results are no longer wanted;
+    // the matches found until then are returned
+    public List<ProductRecord> search(String query, int limit, BooleanSupplier cancelled) {
+        String normalized = normalize(query);
+        Set<Integer> matches = new LinkedHashSet<>();
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        for (Integer product_id : skus.subMap(normalized, normalized + Character.MAX_VALUE).values()) {
+            if (matches.size() >= limit || isCancelled(cancelled)) {
+                break;
+            }
+            matches.add(product_id);
+        }
+
+        String[] terms = tokenize(normalized);
+        if (terms.length > 0 && matches.size() < limit && !isCancelled(cancelled)) {
+            // Walk the candidates of the term that matches the fewest products and check
+            // the other terms against each candidate's own words
+            String rarest = terms[0];
+            long fewest = COUNT_CAP;
+            for (String term : terms) {
+                long count = countUpTo(term, fewest);
+                if (count < fewest) {
+                    fewest = count;
+                    rarest = term;
+                }
+            }
+            scan:
+            for (Set<Integer> ids : prefixRange(rarest).values()) {
+                for (Integer product_id : ids) {
+                    if (isCancelled(cancelled)) {
+                        break scan;
+                    }
+                    Entry entry = products.get(product_id);
+                    if (entry != null && matchesAll(entry.words, terms)) {
+                        matches.add(product_id);
+                        if (matches.size() >= limit) {
+                            break scan;
+                        }
+                    }
+                }
+            }
+        }
+
+        List<ProductRecord> results = new ArrayList<>(matches.size());
+        for (Integer product_id : matches) {
+            Entry entry = products.get(product_id);
+            if (entry != null) {
+                results.add(entry.product);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void productChanged(ProductRecord product) {
+        put(product);
+    }
+
+    @Override
+    public void productDeleted(int product_id) {
+        if (loading) {
+            deletedDuringLoad.add(product_id);
+        }
+        remove(product_id);
+    }
+
+    private synchronized void put(ProductRecord product) {
+        Entry previous = products.get(product.productId());
+        if (previous != null && previous.product.version() > product.version()) {
+            return;
+        }
+        if (previous != null) {
+            unindex(previous);
+        }
+        Entry entry = new Entry(product, tokenize(normalize(product.name())));
+        products.put(product.productId(), entry);
+        for (String word : entry.words) {
+            words.computeIfAbsent(word, w -> ConcurrentHashMap.newKeySet()).add(product.productId());
+        }
+        if (product.sku() != null) {
+            skus.put(skuKey(product), product.productId());
+        }
+    }
+
+    private synchronized void remove(int product_id) {
+        Entry previous = products.remove(product_id);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        for (String word : entry.words) {
+            Set<Integer> ids = words.get(word);
+            if (ids != null) {
+                ids.remove(entry.product.productId());
+                if (ids.isEmpty()) {
+                    words.remove(word, ids);
+                }
+            }
+        }
+        if (entry.product.sku() != null) {
+            skus.remove(skuKey(entry.product));
+        }
+    }
+
+    // Name words starting with the prefix
+    private Map<String, Set<Integer>> prefixRange(String prefix) {
+        return words.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    // Products with a word starting with the prefix, counted only until the cap is reached
+    private long countUpTo(String prefix, long cap) {
+        long count = 0;
+        for (Set<Integer> ids : prefixRange(prefix).values()) {
+            count += ids.size();
+            if (count >= cap) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isCancelled(BooleanSupplier cancelled) {
+        return cancelled.getAsBoolean() || Thread.currentThread().isInterrupted();
+    }
+
+    private synchronized void clear() {
+        words.clear();
+        skus.clear();
+        products.clear();
+    }
+
+    // Every term must be the prefix of at least one of the product's words
+    private static boolean matchesAll(String[] productWords, String[] terms) {
+        for (String term : terms) {
+            boolean found = false;
+            for (String word : productWords) {
+                if (word.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String skuKey(ProductRecord product) {
+        return normalize(product.sku()) + '\0' + product.productId();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Words made of letters and digits; punctuation and spaces separate them
+    private static String[] tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    // A product as indexed, with its name already split into words
+    private record Entry(ProductRecord product, String[] words) {
+    }
+}
@@ -0,0 +1,78 @@
+package model;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Partition upkeep for Purchase_History on a daemon thread, once at start and then daily: adds
+// the coming months' partitions and archives months older than the retention period (see
+// PurchasePartitions).
+public class PurchaseArchiver {
+    private static final Logger LOG = Logger.getLogger(PurchaseArchiver.class.getName());
+    public static final int DEFAULT_MONTHS_AHEAD = 3;
+    public static final int DEFAULT_MONTHS_KEPT = 24;
+    public static final Path DEFAULT_DIRECTORY = Path.of("archive");
+
+    private final Path directory;
+    private final int monthsKept;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> task;
+
+    public PurchaseArchiver() {
+        this(DEFAULT_DIRECTORY, DEFAULT_MONTHS_KEPT);
+    }
+
+    public PurchaseArchiver(Path directory, int monthsKept) {
+        this.directory = directory;
+        this.monthsKept = monthsKept;
+    }
+
+    // Start the daily run; later calls return immediately, as do calls on a database without
+    // partitioning, where there is nothing to do
+    public synchronized void start() {
+        if (task != null || !DatabaseConnection.getConfig().dialect().supportsPartitioning()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "purchase-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        task = scheduler.scheduleAtFixedRate(this::runQuietly, 0, 1, TimeUnit.DAYS);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            scheduler.shutdown();
+            task = null;
+            scheduler = null;
+        }
+    }
+
+    // One round of upkeep; returns a summary for logs
+    public String run() throws Exception {
+        LocalDate today = LocalDate.now();
+        int added = PurchasePartitions.addMonths(today, DEFAULT_MONTHS_AHEAD);
+        int archived = 0;
+        for (ExportStats stats : PurchasePartitions.archive(today, monthsKept, directory)) {
+            LOG.info("Archived purchases: " + stats);
+            archived++;
+        }
+        return "Purchase_History partitions: " + added + " added, " + archived + " archived";
+    }
+
+    private void runQuietly() {
+        try {
+            LOG.info(run());
+        } catch (Exception e) {
+            // An exception would cancel every later run of a fixed-rate task
+            LOG.log(Level.WARNING, "Purchase history upkeep failed", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package model;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Purchase history filter: product, supplier, purchase date range and cost range (bounds inclusive)
+public class PurchaseFilter extends TableFilter<PurchaseHistory> {
+    private static final Map<String, Function<PurchaseHistory, Object>> SORT_COLUMNS = Map.of(
+            "purchase_id", PurchaseHistory::getPurchaseId,
+            "product_id", PurchaseHistory::getProductId,
+            "supplier_id", PurchaseHistory::getSupplierId,
+            "purchase_date", PurchaseHistory::getPurchaseDate,
+            "quantity", PurchaseHistory::getQuantity,
+            "cost", PurchaseHistory::getCost);
+
+    private Integer product_id;
+    private Integer supplier_id;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private BigDecimal minCost;
+    private BigDecimal maxCost;
+
+    public PurchaseFilter() {
+        super("Purchase_History", "purchase_id");
+    }
+
+    public PurchaseFilter productId(Integer product_id) {
+        this.product_id = product_id;
+        return this;
+    }
+
+    public PurchaseFilter supplierId(Integer supplier_id) {
+        this.supplier_id = supplier_id;
+        return this;
+    }
+
+    // Either bound may be null
+    public PurchaseFilter purchaseDateBetween(LocalDate fromDate, LocalDate toDate) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        return this;
+    }
+
+    public PurchaseFilter costBetween(BigDecimal minCost, BigDecimal maxCost) {
+        this.minCost = minCost;
+        this.maxCost = maxCost;
+        return this;
+    }
+
+    @Override
+    protected Map<String, Function<PurchaseHistory, Object>> sortColumns() {
+        return SORT_COLUMNS;
+    }
+
+    @Override
+    protected void addConditions(List<String> conditions, List<Object> params) {
+        if (product_id != null) {
+            conditions.add("product_id = ?");
+            params.add(product_id);
+        }
+        if (supplier_id != null) {
+            conditions.add("supplier_id = ?");
+            params.add(supplier_id);
+        }
+        // Compare the bare column against constants so the purchase_date index can be range-scanned
+        // and only the monthly partitions in the range are read (see PurchasePartitions)
+        if (fromDate != null) {
+            conditions.add("purchase_date >= ?");
+            params.add(fromDate);
+        }
+        if (toDate != null) {
+            conditions.add("purchase_date <= ?");
+            params.add(toDate);
+        }
+        if (minCost != null) {
+            conditions.add("cost >= ?");
+            params.add(minCost);
+        }
+        if (maxCost != null) {
+            conditions.add("cost <= ?");
+            params.add(maxCost);
+        }
+    }
+
+    @Override
+    protected PurchaseHistory read(ResultSet rs) throws SQLException {
+        return new PurchaseHistory(PurchaseHistoryRecord.from(rs));
+    }
+
+    @Override
+    protected int idOf(PurchaseHistory purchase) {
+        return purchase.getPurchaseId();
+    }
+}
@@ -1,86 +1,104 @@
 package model;
 
-import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import javafx.beans.property.SimpleObjectProperty;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class PurchaseHistory {
-    private final IntegerProperty purchaseIdProperty;
-    private final IntegerProperty productIdProperty;
-    private final IntegerProperty supplierIdProperty;
-    private final StringProperty purchaseDateProperty;
-    private final IntegerProperty quantityProperty;
-    private final DoubleProperty costProperty;
+    private IntegerProperty purchaseIdProperty;
+    private IntegerProperty productIdProperty;
+    private IntegerProperty supplierIdProperty;
+    private ObjectProperty<LocalDate> purchaseDateProperty;
+    private IntegerProperty quantityProperty;
+    private ObjectProperty<BigDecimal> costProperty;
 
     private int purchase_id;
     private int product_id;
     private int supplier_id;
-    private String purchase_date;
+    private LocalDate purchase_date;
     private int quantity;
-    private double cost;
+    // Exact amount; never a double, so sums of many purchases do not drift
+    private BigDecimal cost;
 
     // Constructor
-    public PurchaseHistory(int purchase_id, int product_id, int supplier_id, String purchase_date, int quantity, double cost) {
+    public PurchaseHistory(int purchase_id, int product_id, int supplier_id, LocalDate purchase_date, int quantity, BigDecimal cost) {
         this.purchase_id = purchase_id;
         this.product_id = product_id;
         this.supplier_id = supplier_id;
         this.purchase_date = purchase_date;
         this.quantity = quantity;
         this.cost = cost;
+    }
 
-        // Initialize JavaFX properties and sync with standard fields
-        this.purchaseIdProperty = new SimpleIntegerProperty(purchase_id);
-        this.productIdProperty = new SimpleIntegerProperty(product_id);
-        this.supplierIdProperty = new SimpleIntegerProperty(supplier_id);
-        this.purchaseDateProperty = new SimpleStringProperty(purchase_date);
-        this.quantityProperty = new SimpleIntegerProperty(quantity);
-        this.costProperty = new SimpleDoubleProperty(cost);
-
-        // Add listeners to sync changes between standard fields and properties
-        addPropertyListeners();
+    public PurchaseHistory(PurchaseHistoryRecord record) {
+        this(record.purchaseId(), record.productId(), record.supplierId(), record.purchaseDate(),
+                record.quantity(), record.cost());
     }
 
-    private void addPropertyListeners() {
-        purchaseIdProperty.addListener((obs, oldVal, newVal) -> this.purchase_id = newVal.intValue());
-        productIdProperty.addListener((obs, oldVal, newVal) -> this.product_id = newVal.intValue());
-        supplierIdProperty.addListener((obs, oldVal, newVal) -> this.supplier_id = newVal.intValue());
-        purchaseDateProperty.addListener((obs, oldVal, newVal) -> this.purchase_date = newVal);
-        quantityProperty.addListener((obs, oldVal, newVal) -> this.quantity = newVal.intValue());
-        costProperty.addListener((obs, oldVal, newVal) -> this.cost = newVal.doubleValue());
+    // Immutable snapshot of this purchase without any JavaFX state
+    public PurchaseHistoryRecord toRecord() {
+        return new PurchaseHistoryRecord(purchase_id, product_id, supplier_id, purchase_date, quantity, cost);
     }
 
-    // Property getters for JavaFX binding
+    // Property getters for JavaFX binding; each property is only created when a view binds to it
     public IntegerProperty purchaseIdProperty() {
+        if (purchaseIdProperty == null) {
+            purchaseIdProperty = new SimpleIntegerProperty(purchase_id);
+            purchaseIdProperty.addListener((obs, oldVal, newVal) -> this.purchase_id = newVal.intValue());
+        }
         return purchaseIdProperty;
     }
 
     public IntegerProperty productIdProperty() {
+        if (productIdProperty == null) {
+            productIdProperty = new SimpleIntegerProperty(product_id);
+            productIdProperty.addListener((obs, oldVal, newVal) -> this.product_id = newVal.intValue());
+        }
         return productIdProperty;
     }
 
     public IntegerProperty supplierIdProperty() {
+        if (supplierIdProperty == null) {
+            supplierIdProperty = new SimpleIntegerProperty(supplier_id);
+            supplierIdProperty.addListener((obs, oldVal, newVal) -> this.supplier_id = newVal.intValue());
+        }
         return supplierIdProperty;
     }
 
-    public StringProperty purchaseDateProperty() {
+    public ObjectProperty<LocalDate> purchaseDateProperty() {
+        if (purchaseDateProperty == null) {
+            purchaseDateProperty = new SimpleObjectProperty<>(purchase_date);
+            purchaseDateProperty.addListener((obs, oldVal, newVal) -> this.purchase_date = newVal);
+        }
         return purchaseDateProperty;
     }
 
     public IntegerProperty quantityProperty() {
+        if (quantityProperty == null) {
+            quantityProperty = new SimpleIntegerProperty(quantity);
+            quantityProperty.addListener((obs, oldVal, newVal) -> this.quantity = newVal.intValue());
+        }
         return quantityProperty;
     }
 
-    public DoubleProperty costProperty() {
+    public ObjectProperty<BigDecimal> costProperty() {
+        if (costProperty == null) {
+            costProperty = new SimpleObjectProperty<>(cost);
+            costProperty.addListener((obs, oldVal, newVal) -> this.cost = newVal);
+        }
         return costProperty;
     }
 
@@ -91,7 +109,9 @@ public class PurchaseHistory {
 
     public void setPurchaseId(int purchase_id) {
         this.purchase_id = purchase_id;
-        this.purchaseIdProperty.set(purchase_id); // Sync with property
+        if (this.purchaseIdProperty != null) {
+            this.purchaseIdProperty.set(purchase_id); // Sync with property
+        }
     }
 
     public int getProductId() {
@@ -100,7 +120,9 @@ public class PurchaseHistory {
 
     public void setProductId(int product_id) {
         this.product_id = product_id;
-        this.productIdProperty.set(product_id); // Sync with property
+        if (this.productIdProperty != null) {
+            this.productIdProperty.set(product_id); // Sync with property
+        }
     }
 
     public int getSupplierId() {
@@ -109,16 +131,20 @@ public class PurchaseHistory {
 
     public void setSupplierId(int supplier_id) {
         this.supplier_id = supplier_id;
-        this.supplierIdProperty.set(supplier_id); // Sync with property
+        if (this.supplierIdProperty != null) {
+            this.supplierIdProperty.set(supplier_id); // Sync with property
+        }
     }
 
-    public String getPurchaseDate() {
+    public LocalDate getPurchaseDate() {
         return purchase_date;
     }
 
-    public void setPurchaseDate(String purchase_date) {
+    public void setPurchaseDate(LocalDate purchase_date) {
         this.purchase_date = purchase_date;
-        this.purchaseDateProperty.set(purchase_date); // Sync with property
+        if (this.purchaseDateProperty != null) {
+            this.purchaseDateProperty.set(purchase_date); // Sync with property
+        }
     }
 
     public int getQuantity() {
@@ -127,42 +153,100 @@ public class PurchaseHistory {
 
     public void setQuantity(int quantity) {
         this.quantity = quantity;
-        this.quantityProperty.set(quantity); // Sync with property
+        if (this.quantityProperty != null) {
+            this.quantityProperty.set(quantity); // Sync with property
+        }
     }
 
-    public double getCost() {
+    public BigDecimal getCost() {
         return cost;
     }
 
-    public void setCost(double cost) {
+    public void setCost(BigDecimal cost) {
         this.cost = cost;
-        this.costProperty.set(cost); // Sync with property
+        if (this.costProperty != null) {
+            this.costProperty.set(cost); // Sync with property
+        }
     }
 
     // CRUD Operations
 
-    // Save a new purchase history entry
+    // Save a new purchase history entry; its rollup totals are updated in the same transaction
     public void save() throws SQLException {
         String sql = "INSERT INTO Purchase_History (product_id, supplier_id, purchase_date, quantity, cost) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
-            pstmt.setInt(1, product_id);
-            pstmt.setInt(2, supplier_id);
-            pstmt.setString(3, purchase_date);
-            pstmt.setInt(4, quantity);
-            pstmt.setDouble(5, cost);
-            pstmt.executeUpdate();
-
-            // Retrieve the generated ID
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    this.purchase_id = generatedKeys.getInt(1); // Set the generated ID in the current object
-                    this.purchaseIdProperty.set(this.purchase_id);
-                } else {
-                    throw new SQLException("Failed to retrieve generated purchase ID.");
+            conn.setAutoCommit(false);
+            try {
+                pstmt.setInt(1, product_id);
+                pstmt.setInt(2, supplier_id);
+                pstmt.setObject(3, purchase_date);
+                pstmt.setInt(4, quantity);
+                pstmt.setBigDecimal(5, cost);
+                pstmt.executeUpdate();
+                PurchaseRollups.addAll(conn, List.of(toRecord()));
+
+                // Retrieve the generated ID
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        this.purchase_id = generatedKeys.getInt(1); // Set the generated ID in the current object
+                    } else {
+                        throw new SQLException("Failed to retrieve generated purchase ID.");
+                    }
                 }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
             }
         }
+        if (this.purchaseIdProperty != null) {
+            this.purchaseIdProperty.set(this.purchase_id);
+        }
+    }
+
+    // Insert many purchases with JDBC batching; the generated IDs are set on the purchases and returned in order.
+    // Rollup totals are updated in each chunk's transaction. If a later chunk fails, the purchases of the
+    // chunks already committed still get their IDs.
+    public static List<Integer> saveAll(Collection<PurchaseHistory> purchases) throws SQLException {
+        return saveAll(purchases, JdbcBatch.DEFAULT_CHUNK_SIZE);
+    }
+
+    public static List<Integer> saveAll(Collection<PurchaseHistory> purchases, int chunkSize) throws SQLException {
+        String sql = "INSERT INTO Purchase_History (product_id, supplier_id, purchase_date, quantity, cost) VALUES (?, ?, ?, ?, ?)";
+        return JdbcBatch.insert(sql, purchases, chunkSize, (pstmt, purchase) -> {
+            pstmt.setInt(1, purchase.product_id);
+            pstmt.setInt(2, purchase.supplier_id);
+            pstmt.setObject(3, purchase.purchase_date);
+            pstmt.setInt(4, purchase.quantity);
+            pstmt.setBigDecimal(5, purchase.cost);
+        }, (conn, chunk) -> PurchaseRollups.addAll(conn, toRecords(chunk)), PurchaseHistory::setPurchaseId);
+    }
+
+    // Update many purchases with JDBC batching; returns the number of rows updated.
+    // Rollup totals move from the old values to the new ones in each chunk's transaction.
+    public static int updateAll(Collection<PurchaseHistory> purchases) throws SQLException {
+        return updateAll(purchases, JdbcBatch.DEFAULT_CHUNK_SIZE);
+    }
+
+    public static int updateAll(Collection<PurchaseHistory> purchases, int chunkSize) throws SQLException {
+        String sql = "UPDATE Purchase_History SET product_id = ?, supplier_id = ?, purchase_date = ?, quantity = ?, cost = ? WHERE purchase_id = ?";
+        return JdbcBatch.update(sql, purchases, chunkSize, (pstmt, purchase) -> {
+            pstmt.setInt(1, purchase.product_id);
+            pstmt.setInt(2, purchase.supplier_id);
+            pstmt.setObject(3, purchase.purchase_date);
+            pstmt.setInt(4, purchase.quantity);
+            pstmt.setBigDecimal(5, purchase.cost);
+            pstmt.setInt(6, purchase.purchase_id);
+        }, (conn, chunk) -> PurchaseRollups.replaceAll(conn, toRecords(chunk)));
+    }
+
+    private static List<PurchaseHistoryRecord> toRecords(List<PurchaseHistory> purchases) {
+        List<PurchaseHistoryRecord> records = new ArrayList<>(purchases.size());
+        for (PurchaseHistory purchase : purchases) {
+            records.add(purchase.toRecord());
+        }
+        return records;
     }
 
     // Fetch all purchase history records
@@ -173,19 +257,40 @@ public class PurchaseHistory {
                 PreparedStatement pstmt = conn.prepareStatement(sql);
                 ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                PurchaseHistory purchaseHistory = new PurchaseHistory(
-                        rs.getInt("purchase_id"),
-                        rs.getInt("product_id"),
-                        rs.getInt("supplier_id"),
-                        rs.getString("purchase_date"),
-                        rs.getInt("quantity"),
-                        rs.getDouble("cost"));
-                purchaseHistories.add(purchaseHistory);
+                purchaseHistories.add(new PurchaseHistory(PurchaseHistoryRecord.from(rs)));
             }
         }
         return purchaseHistories;
     }
-}
-
 
+    // Fetch all purchase history records as plain records, for reports that never display rows
+    public static List<PurchaseHistoryRecord> fetchAllRecords() throws SQLException {
+        List<PurchaseHistoryRecord> purchaseHistories = new ArrayList<>();
+        String sql = "SELECT * FROM Purchase_History";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                purchaseHistories.add(PurchaseHistoryRecord.from(rs));
+            }
+        }
+        return purchaseHistories;
+    }
 
+    // Average units purchased per day over the given number of days, by product ID; products
+    // without purchases in that window are left out. Summed in the database, one row per product.
+    public static Map<Integer, Double> fetchDailyVelocity(int days) throws SQLException {
+        Map<Integer, Double> velocities = new HashMap<>();
+        String sql = "SELECT product_id, SUM(quantity) AS units FROM Purchase_History WHERE purchase_date >= ? GROUP BY product_id";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = DatabaseConnection.prepareStreaming(conn, sql)) {
+            pstmt.setObject(1, LocalDate.now().minusDays(days));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    velocities.put(rs.getInt("product_id"), rs.getLong("units") / (double) days);
+                }
+            }
+        }
+        return velocities;
+    }
+}
@@ -0,0 +1,27 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// Immutable row of the Purchase_History table, used for reporting over large histories
+public record PurchaseHistoryRecord(int purchaseId, int productId, int supplierId, LocalDate purchaseDate,
+        int quantity, BigDecimal cost) {
+
+    public static PurchaseHistoryRecord from(ResultSet rs) throws SQLException {
+        return new PurchaseHistoryRecord(
+                rs.getInt("purchase_id"),
+                rs.getInt("product_id"),
+                rs.getInt("supplier_id"),
+                rs.getObject("purchase_date", LocalDate.class),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("cost"));
+    }
+
+    // The cost in whole cents, for exact sums in a primitive long
+    public long costCents() {
+        return cost.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,174 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Monthly RANGE partitions of Purchase_History on purchase_date. Partition pYYYYMM holds one
+// month and p_future everything after the last month; queries with a purchase_date range (the
+// purchase filter, rollup backfill, velocity) only read the partitions of that range, and new
+// purchases always go to a small recent partition.
+//
+// addMonths() keeps monthly partitions ready ahead of time by splitting p_future. archive()
+// moves whole months older than the retention period to gzip-compressed CSV files: the month
+// is swapped out of the table with EXCHANGE PARTITION, written out, and only dropped once the
+// file is complete. Rollup totals for archived months stay in Purchase_Rollups.
+// On a table that is not partitioned, or a database without partitioning (H2), every method
+// does nothing.
+public final class PurchasePartitions {
+    private static final String TABLE = "Purchase_History";
+    private static final String FUTURE = "p_future";
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    // One partition; lessThan is the exclusive upper bound, null for p_future
+    public record Partition(String name, LocalDate lessThan, long rows) {
+    }
+
+    private PurchasePartitions() {
+    }
+
+    // Partitions in bound order; empty if the table is not partitioned
+    public static List<Partition> list() throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        if (!DatabaseConnection.getConfig().dialect().supportsPartitioning()) {
+            return partitions;
+        }
+        String sql = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                + "ORDER BY PARTITION_ORDINAL_POSITION";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, TABLE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String bound = rs.getString("PARTITION_DESCRIPTION").replace("'", "");
+                    partitions.add(new Partition(rs.getString("PARTITION_NAME"),
+                            "MAXVALUE".equals(bound) ? null : LocalDate.parse(bound), rs.getLong("TABLE_ROWS")));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    // Split p_future so every month up to monthsAhead after today has its own partition. The first
+    // time, months are created from the oldest purchase onwards. Returns the number of partitions added.
+    public static int addMonths(LocalDate today, int monthsAhead) throws SQLException {
+        List<Partition> partitions = list();
+        if (partitions.isEmpty() || !FUTURE.equals(partitions.get(partitions.size() - 1).name())) {
+            return 0;
+        }
+        LocalDate next = partitions.size() > 1 ? partitions.get(partitions.size() - 2).lessThan() : oldestMonth(today);
+        LocalDate last = today.withDayOfMonth(1).plusMonths(monthsAhead);
+        List<String> definitions = new ArrayList<>();
+        for (LocalDate month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            definitions.add("PARTITION " + month.format(MONTH_NAME) + " VALUES LESS THAN ('" + month.plusMonths(1) + "')");
+        }
+        if (definitions.isEmpty()) {
+            return 0;
+        }
+        definitions.add("PARTITION " + FUTURE + " VALUES LESS THAN (MAXVALUE)");
+        execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE + " INTO (" + String.join(", ", definitions) + ")");
+        return definitions.size() - 1;
+    }
+
+    // Move every month that ended before the first of the month monthsKept months ago to
+    // directory/Purchase_History_YYYY-MM.csv.gz and drop its partition
+    public static List<ExportStats> archive(LocalDate today, int monthsKept, Path directory) throws SQLException, IOException {
+        LocalDate cutoff = today.withDayOfMonth(1).minusMonths(monthsKept);
+        List<ExportStats> archived = new ArrayList<>();
+        for (Partition partition : list()) {
+            if (partition.lessThan() == null || partition.lessThan().isAfter(cutoff)) {
+                break;
+            }
+            archived.add(archivePartition(partition, directory));
+        }
+        return archived;
+    }
+
+    private static ExportStats archivePartition(Partition partition, Path directory) throws SQLException, IOException {
+        String name = partition.name();
+        String detached = TABLE + "_" + name;
+        LocalDate month = partition.lessThan().minusMonths(1);
+        Files.createDirectories(directory);
+        Path file = archiveFile(directory, month);
+        Path partial = directory.resolve(file.getFileName() + ".part");
+
+        // Swap the month's rows into a plain table of their own; purchases inserted into that month
+        // from now on land in the (now empty) partition and are kept
+        execute("DROP TABLE IF EXISTS " + detached);
+        execute("CREATE TABLE " + detached + " LIKE " + TABLE);
+        execute("ALTER TABLE " + detached + " REMOVE PARTITIONING");
+        execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + name + " WITH TABLE " + detached);
+        ExportStats stats;
+        try {
+            stats = DataExporter.exportCsv("SELECT * FROM " + detached + " ORDER BY purchase_id", partial, true);
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            // Put the rows back where they were. Purchases that arrived for the month meanwhile
+            // were in the partition and come out of it with the exchange, so they are copied back
+            // from the detached table before it is dropped.
+            try {
+                execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + name + " WITH TABLE " + detached);
+                execute("INSERT INTO " + TABLE + " SELECT * FROM " + detached);
+                execute("DROP TABLE " + detached);
+            } catch (SQLException restoreError) {
+                e.addSuppressed(restoreError);
+                throw new SQLException("Archiving " + TABLE + " partition " + name + " failed and its rows could not be put back;"
+                        + " they are kept in table " + detached + " and must be restored by hand", e);
+            }
+            throw e;
+        }
+        execute("DROP TABLE " + detached);
+        // Late purchases for the month may have arrived meanwhile; they are archived on the next run
+        if (countRows(name) == 0) {
+            execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+        }
+        return new ExportStats(file, stats.rows(), Files.size(file), stats.elapsedNanos());
+    }
+
+    // Purchase_History_2024-05.csv.gz, or -2, -3, ... if late purchases of that month were archived before
+    private static Path archiveFile(Path directory, LocalDate month) {
+        String base = TABLE + "_" + month.toString().substring(0, 7);
+        Path file = directory.resolve(base + ".csv.gz");
+        for (int n = 2; Files.exists(file); n++) {
+            file = directory.resolve(base + "-" + n + ".csv.gz");
+        }
+        return file;
+    }
+
+    private static LocalDate oldestMonth(LocalDate today) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement("SELECT MIN(purchase_date) FROM " + TABLE);
+                ResultSet rs = pstmt.executeQuery()) {
+            LocalDate oldest = rs.next() ? rs.getObject(1, LocalDate.class) : null;
+            return (oldest == null ? today : oldest).withDayOfMonth(1);
+        }
+    }
+
+    private static long countRows(String partition) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM " + TABLE + " PARTITION (" + partition + ")");
+                ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void execute(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
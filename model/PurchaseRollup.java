@@ -0,0 +1,23 @@
+package model;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// One row of Purchase_Rollups: purchase totals of one product, supplier or category over one
+// day or month. periodStart is the day, or the first day of the month.
+public record PurchaseRollup(PurchaseRollups.Period period, LocalDate periodStart, PurchaseRollups.Dimension dimension,
+        int dimensionId, long quantity, BigDecimal cost, long purchases) {
+
+    public static PurchaseRollup from(ResultSet rs) throws SQLException {
+        return new PurchaseRollup(
+                PurchaseRollups.Period.valueOf(rs.getString("period")),
+                rs.getObject("period_start", LocalDate.class),
+                PurchaseRollups.Dimension.valueOf(rs.getString("dimension")),
+                rs.getInt("dimension_id"),
+                rs.getLong("quantity"),
+                rs.getBigDecimal("cost"),
+                rs.getLong("purchases"));
+    }
+}
@@ -0,0 +1,292 @@
+package model;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+// Daily and monthly purchase totals (quantity, cost, number of purchases) per product, supplier
+// and category, kept in Purchase_Rollups so reports read a few pre-aggregated rows instead of
+// the whole history. Writes to Purchase_History apply their deltas in the same transaction
+// (see PurchaseHistory.save / saveAll / updateAll); backfill() rebuilds the totals from scratch.
+// Purchases are counted under the category their product has when they are written.
+public final class PurchaseRollups {
+    private static final Logger LOG = Logger.getLogger(PurchaseRollups.class.getName());
+
+    public enum Period {
+        DAY, MONTH;
+
+        LocalDate start(LocalDate date) {
+            return this == DAY ? date : date.withDayOfMonth(1);
+        }
+    }
+
+    public enum Dimension {
+        PRODUCT, SUPPLIER, CATEGORY
+    }
+
+    private static final String UPSERT_SQL = "INSERT INTO Purchase_Rollups (period, period_start, dimension, dimension_id, quantity, cost, purchases) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), "
+            + "cost = cost + VALUES(cost), purchases = purchases + VALUES(purchases)";
+
+    private PurchaseRollups() {
+    }
+
+    // Totals of one dimension for periods starting from..to (inclusive), oldest first. Pass a
+    // dimensionId to get one product, supplier or category, or null for all of them.
+    public static List<PurchaseRollup> fetch(Period period, Dimension dimension, Integer dimensionId,
+            LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT * FROM Purchase_Rollups WHERE period = ? AND dimension = ?"
+                + (dimensionId == null ? "" : " AND dimension_id = ?")
+                + " AND period_start >= ? AND period_start <= ? ORDER BY period_start, dimension_id";
+        List<PurchaseRollup> rollups = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setString(i++, period.name());
+            pstmt.setString(i++, dimension.name());
+            if (dimensionId != null) {
+                pstmt.setInt(i++, dimensionId);
+            }
+            pstmt.setObject(i++, period.start(from));
+            pstmt.setObject(i, to);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rollups.add(PurchaseRollup.from(rs));
+                }
+            }
+        }
+        return rollups;
+    }
+
+    // Add newly inserted purchases to the totals, inside the inserting transaction
+    static void addAll(Connection conn, Collection<PurchaseHistoryRecord> purchases) throws SQLException {
+        apply(conn, purchases, List.of());
+    }
+
+    // Move updated purchases from their old totals to their new ones, inside the updating
+    // transaction and before the update runs. Purchases that no longer exist are skipped, as the
+    // update will not touch them either.
+    static void replaceAll(Connection conn, Collection<PurchaseHistoryRecord> updated) throws SQLException {
+        List<Integer> ids = new ArrayList<>(updated.size());
+        for (PurchaseHistoryRecord purchase : updated) {
+            ids.add(purchase.purchaseId());
+        }
+        Map<Integer, PurchaseHistoryRecord> old = lockPurchases(conn, ids);
+        List<PurchaseHistoryRecord> added = new ArrayList<>(old.size());
+        for (PurchaseHistoryRecord purchase : updated) {
+            if (old.containsKey(purchase.purchaseId())) {
+                added.add(purchase);
+            }
+        }
+        apply(conn, added, old.values());
+    }
+
+    // Rebuild every total from Purchase_History, one month per transaction. Each month's purchases
+    // are read FOR UPDATE, so purchases written into that month meanwhile wait instead of being
+    // counted twice or lost. Totals of months before the oldest purchase are left alone: those
+    // months have been archived (see PurchasePartitions). Returns the number of purchases counted.
+    public static long backfill() throws SQLException {
+        LocalDate first;
+        LocalDate last;
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement("SELECT MIN(purchase_date), MAX(purchase_date) FROM Purchase_History");
+                ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            first = rs.getObject(1, LocalDate.class);
+            last = rs.getObject(2, LocalDate.class);
+            if (first == null) {
+                return 0;
+            }
+        }
+        long counted = 0;
+        for (LocalDate month = first.withDayOfMonth(1); !month.isAfter(last); month = month.plusMonths(1)) {
+            counted += backfillMonth(month);
+        }
+        return counted;
+    }
+
+    // Backfill only when there are purchases but no totals at all, i.e. on the first start after
+    // Purchase_Rollups was added to an existing database; returns the number of purchases counted
+    public static long backfillIfMissing() throws SQLException {
+        if (hasRows("Purchase_Rollups") || !hasRows("Purchase_History")) {
+            return 0;
+        }
+        long counted = backfill();
+        LOG.info("Purchase totals backfilled from " + counted + " purchases");
+        return counted;
+    }
+
+    private static boolean hasRows(String table) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM " + table + " LIMIT 1");
+                ResultSet rs = pstmt.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private static long backfillMonth(LocalDate month) throws SQLException {
+        LocalDate next = month.plusMonths(1);
+        String sql = "SELECT * FROM Purchase_History WHERE purchase_date >= ? AND purchase_date < ? FOR UPDATE";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<PurchaseHistoryRecord> purchases = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setObject(1, month);
+                    pstmt.setObject(2, next);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            purchases.add(PurchaseHistoryRecord.from(rs));
+                        }
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "DELETE FROM Purchase_Rollups WHERE period_start >= ? AND period_start < ?")) {
+                    pstmt.setObject(1, month);
+                    pstmt.setObject(2, next);
+                    pstmt.executeUpdate();
+                }
+                apply(conn, purchases, List.of());
+                conn.commit();
+                return purchases.size();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Sum the added purchases minus the removed ones per (period, dimension) and write the
+    // non-zero deltas as one batch of upserts
+    private static void apply(Connection conn, Collection<PurchaseHistoryRecord> added,
+            Collection<PurchaseHistoryRecord> removed) throws SQLException {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        List<Integer> productIds = new ArrayList<>();
+        for (PurchaseHistoryRecord purchase : added) {
+            productIds.add(purchase.productId());
+        }
+        for (PurchaseHistoryRecord purchase : removed) {
+            productIds.add(purchase.productId());
+        }
+        Map<Integer, Integer> categories = categoriesOf(conn, productIds);
+
+        Map<Key, Totals> deltas = new LinkedHashMap<>();
+        for (PurchaseHistoryRecord purchase : added) {
+            accumulate(deltas, purchase, categories, 1);
+        }
+        for (PurchaseHistoryRecord purchase : removed) {
+            accumulate(deltas, purchase, categories, -1);
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+            for (Map.Entry<Key, Totals> delta : deltas.entrySet()) {
+                Key key = delta.getKey();
+                Totals totals = delta.getValue();
+                if (totals.isZero()) {
+                    continue;
+                }
+                pstmt.setString(1, key.period().name());
+                pstmt.setObject(2, key.periodStart());
+                pstmt.setString(3, key.dimension().name());
+                pstmt.setInt(4, key.dimensionId());
+                pstmt.setLong(5, totals.quantity);
+                pstmt.setBigDecimal(6, BigDecimal.valueOf(totals.costCents, 2));
+                pstmt.setLong(7, totals.purchases);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void accumulate(Map<Key, Totals> deltas, PurchaseHistoryRecord purchase,
+            Map<Integer, Integer> categories, int sign) {
+        LocalDate day = purchase.purchaseDate();
+        Integer category_id = categories.get(purchase.productId());
+        long quantity = sign * (long) purchase.quantity();
+        long costCents = sign * purchase.costCents();
+        for (Period period : Period.values()) {
+            LocalDate start = period.start(day);
+            add(deltas, new Key(period, start, Dimension.PRODUCT, purchase.productId()), quantity, costCents, sign);
+            add(deltas, new Key(period, start, Dimension.SUPPLIER, purchase.supplierId()), quantity, costCents, sign);
+            if (category_id != null) {
+                add(deltas, new Key(period, start, Dimension.CATEGORY, category_id), quantity, costCents, sign);
+            }
+        }
+    }
+
+    private static void add(Map<Key, Totals> deltas, Key key, long quantity, long costCents, int sign) {
+        Totals totals = deltas.computeIfAbsent(key, k -> new Totals());
+        totals.quantity += quantity;
+        totals.costCents += costCents;
+        totals.purchases += sign;
+    }
+
+    private static Map<Integer, Integer> categoriesOf(Connection conn, List<Integer> productIds) throws SQLException {
+        Map<Integer, Integer> categories = new HashMap<>();
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(productIds));
+        String placeholders = String.join(", ", Collections.nCopies(distinct.size(), "?"));
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT product_id, category_id FROM Products WHERE product_id IN (" + placeholders + ")")) {
+            int i = 1;
+            for (Integer product_id : distinct) {
+                pstmt.setInt(i++, product_id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    categories.put(rs.getInt("product_id"), rs.getInt("category_id"));
+                }
+            }
+        }
+        return categories;
+    }
+
+    private static Map<Integer, PurchaseHistoryRecord> lockPurchases(Connection conn, List<Integer> ids) throws SQLException {
+        Map<Integer, PurchaseHistoryRecord> purchases = new HashMap<>();
+        if (ids.isEmpty()) {
+            return purchases;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT * FROM Purchase_History WHERE purchase_id IN (" + placeholders + ") FOR UPDATE")) {
+            int i = 1;
+            for (Integer purchase_id : ids) {
+                pstmt.setInt(i++, purchase_id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    PurchaseHistoryRecord purchase = PurchaseHistoryRecord.from(rs);
+                    purchases.put(purchase.purchaseId(), purchase);
+                }
+            }
+        }
+        return purchases;
+    }
+
+    private record Key(Period period, LocalDate periodStart, Dimension dimension, int dimensionId) {
+    }
+
+    // Summed in primitive longs (cost in cents), so large backfills stay exact and allocation-free
+    private static final class Totals {
+        long quantity;
+        long costCents;
+        long purchases;
+
+        boolean isZero() {
+            return quantity == 0 && costCents == 0 && purchases == 0;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+// In-memory copy of a small, slowly changing table, keyed by ID. The whole table is loaded on
+// first use and again once the TTL has passed or invalidate() was called; every other read is
+// served from memory. Rows are immutable records, so callers cannot change the cached state.
+public class ReadThroughCache<T> {
+
+    // Loads every row of the table
+    @FunctionalInterface
+    public interface Loader<T> {
+        List<T> loadAll() throws SQLException;
+    }
+
+    private final Loader<T> loader;
+    private final ToIntFunction<T> idOf;
+    private final long ttlMillis;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Bumped by invalidate(), so a load that overlapped an invalidation is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot<T> snapshot;
+
+    public ReadThroughCache(long ttlMillis, ToIntFunction<T> idOf, Loader<T> loader) {
+        this.ttlMillis = ttlMillis;
+        this.idOf = idOf;
+        this.loader = loader;
+    }
+
+    // Row with the given ID, or null if the table has no such row
+    public T get(int id) throws SQLException {
+        return current().byId.get(id);
+    }
+
+    // All rows in the order the loader returned them
+    public List<T> getAll() throws SQLException {
+        return current().rows;
+    }
+
+    // Drop the cached copy; the next read reloads the table
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    // Reads answered from memory
+    public long getHits() {
+        return hits.get();
+    }
+
+    // Reads that had to load the table from the database
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private Snapshot<T> current() throws SQLException {
+        Snapshot<T> cached = snapshot;
+        if (cached != null && !cached.isExpired()) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        synchronized (this) {
+            // Another thread may have reloaded while this one waited for the lock
+            cached = snapshot;
+            if (cached != null && !cached.isExpired()) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            misses.incrementAndGet();
+            long loading = generation.get();
+            cached = new Snapshot<>(loader.loadAll(), idOf, System.currentTimeMillis() + ttlMillis);
+            // If the table was invalidated while loading, the rows may predate that write: hand
+            // them to this caller only and let the next read load again
+            if (generation.get() == loading) {
+                snapshot = cached;
+            }
+            return cached;
+        }
+    }
+
+    private static final class Snapshot<T> {
+        private final List<T> rows;
+        private final Map<Integer, T> byId;
+        private final long expiresAt;
+
+        private Snapshot(List<T> rows, ToIntFunction<T> idOf, long expiresAt) {
+            Map<Integer, T> byId = new LinkedHashMap<>(rows.size() * 2);
+            for (T row : rows) {
+                byId.put(idOf.applyAsInt(row), row);
+            }
+            this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+            this.byId = byId;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package model;
+
+// A low-stock product in the reorder queue. dailyVelocity is units purchased per day over the
+// recent window; score = deficit * (1 + dailyVelocity), so a large shortfall on a fast-moving
+// product comes first and products nobody has bought lately are still ranked by deficit.
+public record ReorderItem(ProductRecord product, int deficit, double dailyVelocity, double score) {
+
+    public static ReorderItem of(ProductRecord product, double dailyVelocity) {
+        int deficit = product.reorderLevel() - product.quantityInStock();
+        return new ReorderItem(product, deficit, dailyVelocity, deficit * (1.0 + dailyVelocity));
+    }
+}
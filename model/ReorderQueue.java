@@ -0,0 +1,235 @@
+package model;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Low-stock products ranked by urgency (see ReorderItem) in an indexed binary max-heap: a
+// product's heap slot is tracked by ID, so a stock change re-ranks just that product in
+// O(log n), and the top n items are read in O(n log n) without touching the rest of the heap.
+// Fed by LowStockMonitor events; purchase velocities are re-read from Purchase_History hourly on
+// a daemon thread, which re-ranks every product at once and tells the rank listeners.
+public class ReorderQueue implements LowStockMonitor.Listener {
+    private static final Logger LOG = Logger.getLogger(ReorderQueue.class.getName());
+    // Purchases counted towards a product's velocity
+    public static final int VELOCITY_DAYS = 30;
+    private static final long VELOCITY_TTL_MS = 60 * 60_000;
+
+    // Heap of product IDs, most urgent at index 0
+    private int[] heap = new int[64];
+    private int size;
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private final Map<Integer, ReorderItem> items = new HashMap<>();
+    private Map<Integer, Double> velocities = new HashMap<>();
+    private volatile long velocitiesLoadedAt;
+    private boolean started;
+    private ScheduledExecutorService refresher;
+    private final List<Runnable> rankListeners = new CopyOnWriteArrayList<>();
+
+    // Load velocities, take the monitor's low-stock products and follow its events; later calls return immediately
+    public void start(LowStockMonitor monitor) throws SQLException {
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+        }
+        Map<Integer, Double> loaded = PurchaseHistory.fetchDailyVelocity(VELOCITY_DAYS);
+        monitor.start();
+        // Monitor first, then this queue: the same order in which events arrive, and holding the
+        // monitor keeps events out until the snapshot has been applied
+        synchronized (monitor) {
+            synchronized (this) {
+                if (started) {
+                    return;
+                }
+                velocities = loaded;
+                velocitiesLoadedAt = System.currentTimeMillis();
+                for (ProductRecord product : monitor.subscribe(this)) {
+                    update(product);
+                }
+                started = true;
+                refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "reorder-velocities");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                refresher.scheduleWithFixedDelay(this::refreshQuietly, VELOCITY_TTL_MS, VELOCITY_TTL_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Called after new velocities re-ranked every product at once; single products that change
+    // rank are announced by LowStockMonitor events instead
+    public void addRankListener(Runnable listener) {
+        rankListeners.add(listener);
+    }
+
+    public void removeRankListener(Runnable listener) {
+        rankListeners.remove(listener);
+    }
+
+    // Re-read purchase velocities if they are older than an hour and re-rank every product
+    public void refreshVelocitiesIfStale() throws SQLException {
+        if (System.currentTimeMillis() - velocitiesLoadedAt > VELOCITY_TTL_MS) {
+            setVelocities(PurchaseHistory.fetchDailyVelocity(VELOCITY_DAYS));
+        }
+    }
+
+    public void setVelocities(Map<Integer, Double> velocities) {
+        synchronized (this) {
+            this.velocities = velocities;
+            this.velocitiesLoadedAt = System.currentTimeMillis();
+            for (int i = 0; i < size; i++) {
+                ReorderItem item = items.get(heap[i]);
+                items.put(heap[i], ReorderItem.of(item.product(), velocities.getOrDefault(heap[i], 0.0)));
+            }
+            // Bottom-up heapify, O(n)
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+        for (Runnable listener : rankListeners) {
+            listener.run();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            setVelocities(PurchaseHistory.fetchDailyVelocity(VELOCITY_DAYS));
+        } catch (SQLException | RuntimeException e) {
+            // An exception would cancel every later run; the next read through
+            // refreshVelocitiesIfStale() tries again
+            LOG.log(Level.WARNING, "Could not refresh purchase velocities", e);
+        }
+    }
+
+    @Override
+    public void lowStockChanged(LowStockEvent event) {
+        if (event.type() == LowStockEvent.Type.LEFT) {
+            remove(event.product().productId());
+        } else {
+            update(event.product());
+        }
+    }
+
+    // Insert or re-rank a low-stock product
+    public synchronized void update(ProductRecord product) {
+        int product_id = product.productId();
+        ReorderItem item = ReorderItem.of(product, velocities.getOrDefault(product_id, 0.0));
+        items.put(product_id, item);
+        Integer position = positions.get(product_id);
+        if (position == null) {
+            if (size == heap.length) {
+                heap = java.util.Arrays.copyOf(heap, size * 2);
+            }
+            heap[size] = product_id;
+            positions.put(product_id, size);
+            siftUp(size++);
+        } else {
+            siftUp(position);
+            siftDown(positions.get(product_id));
+        }
+    }
+
+    public synchronized void remove(int product_id) {
+        Integer position = positions.remove(product_id);
+        if (position == null) {
+            return;
+        }
+        items.remove(product_id);
+        int last = heap[--size];
+        if (position < size) {
+            heap[position] = last;
+            positions.put(last, position);
+            siftUp(position);
+            siftDown(positions.get(last));
+        }
+    }
+
+    // Most urgent product, or null when nothing is low
+    public synchronized ReorderItem peek() {
+        return size == 0 ? null : items.get(heap[0]);
+    }
+
+    public synchronized ReorderItem get(int product_id) {
+        return items.get(product_id);
+    }
+
+    // The n most urgent products, most urgent first. Walks the heap from the root with a small
+    // frontier queue, so only about n entries are looked at whatever the queue size.
+    public synchronized List<ReorderItem> top(int n) {
+        List<ReorderItem> result = new ArrayList<>(Math.min(n, size));
+        if (size == 0 || n <= 0) {
+            return result;
+        }
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> Double.compare(score(b), score(a)));
+        frontier.add(0);
+        while (!frontier.isEmpty() && result.size() < n) {
+            int index = frontier.poll();
+            result.add(items.get(heap[index]));
+            int child = 2 * index + 1;
+            if (child < size) {
+                frontier.add(child);
+            }
+            if (child + 1 < size) {
+                frontier.add(child + 1);
+            }
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private double score(int index) {
+        return items.get(heap[index]).score();
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (score(index) <= score(parent)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int largest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && score(left) > score(largest)) {
+                largest = left;
+            }
+            if (right < size && score(right) > score(largest)) {
+                largest = right;
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int a = heap[i];
+        heap[i] = heap[j];
+        heap[j] = a;
+        positions.put(heap[i], i);
+        positions.put(heap[j], j);
+    }
+}
@@ -0,0 +1,5 @@
+package model;
+
+// Stock held for an order that is not confirmed yet; released automatically after expiresAtMillis
+public record Reservation(String reservationId, int productId, int quantity, long expiresAtMillis) {
+}
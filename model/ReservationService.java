@@ -0,0 +1,385 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Holds stock for unconfirmed orders. Every product has two in-memory counters, units on hand
+// (kept current through ProductEvents) and units reserved, so available-to-promise is one
+// subtraction and reserve / release are O(1) with no database round trip. The counters are
+// guarded by striped locks, so products on different stripes never wait for each other.
+//
+// Holds expire after their TTL through a hashed timing wheel with TICK_MS slots. Holds are
+// persisted write-behind: changes are queued per reservation, the latest one wins, and a
+// background thread writes them to Stock_Reservations every FLUSH_MS, so a restart keeps the
+// unexpired holds. commit() turns a hold into a FEFO allocation (StockAllocator); allocate() is
+// for orders without a hold and can only take units that are not held.
+// Counters cover holds made by this process only.
+public class ReservationService implements ProductEvents.Listener {
+    private static final Logger LOG = Logger.getLogger(ReservationService.class.getName());
+    public static final long DEFAULT_TTL_MS = 15 * 60_000;
+    private static final long TICK_MS = 1_000;
+    private static final int WHEEL_SLOTS = 512;
+    private static final long FLUSH_MS = 1_000;
+    private static final int STRIPES = 64;
+
+    // Units on hand and reserved for one product; only touched under the product's stripe lock
+    private static final class Counter {
+        int onHand;
+        int reserved;
+        int version = -1;
+    }
+
+    private final StockAllocator allocator;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Reservation> holds = new ConcurrentHashMap<>();
+    // Reservation ID -> hold to write, or DELETED, waiting for the next flush
+    private final Map<String, Reservation> pendingWrites = new ConcurrentHashMap<>();
+    private static final Reservation DELETED = new Reservation("", 0, 0, 0);
+    // Slot i holds the IDs of reservations expiring in a tick congruent to i; guarded by itself
+    private final List<ArrayDeque<String>> wheel;
+    private long nextTick;
+    private ScheduledExecutorService scheduler;
+    private final Object startLock = new Object();
+    private volatile boolean started;
+
+    public ReservationService(StockAllocator allocator) {
+        this.allocator = allocator;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        wheel = new ArrayList<>(WHEEL_SLOTS);
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        nextTick = System.currentTimeMillis() / TICK_MS;
+    }
+
+    // Read stock levels and the stored unexpired holds, then start expiring and persisting holds;
+    // later calls return immediately
+    public void start() throws SQLException {
+        synchronized (startLock) {
+            if (started) {
+                return;
+            }
+            ProductEvents.subscribe(this);
+            try {
+                Product.forEach(product -> productChanged(product.toRecord()));
+                loadHolds();
+            } catch (SQLException | RuntimeException e) {
+                ProductEvents.unsubscribe(this);
+                counters.clear();
+                holds.clear();
+                throw e;
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "reservation-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::expireDue, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, FLUSH_MS, FLUSH_MS, TimeUnit.MILLISECONDS);
+            started = true;
+        }
+    }
+
+    // Units that can still be promised: on hand minus reserved; 0 for unknown products
+    public int availableToPromise(int product_id) {
+        ReentrantLock lock = stripe(product_id);
+        lock.lock();
+        try {
+            Counter counter = counters.get(product_id);
+            return counter == null ? 0 : Math.max(0, counter.onHand - counter.reserved);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Hold quantity units for ttlMillis; throws InsufficientStockException if they are not available
+    public Reservation reserve(int product_id, int quantity, long ttlMillis) throws InsufficientStockException {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), product_id, quantity,
+                System.currentTimeMillis() + ttlMillis);
+        claim(product_id, quantity);
+        holds.put(reservation.reservationId(), reservation);
+        schedule(reservation);
+        pendingWrites.put(reservation.reservationId(), reservation);
+        return reservation;
+    }
+
+    // Give the units back; false if the reservation already expired, was released or committed
+    public boolean release(String reservation_id) {
+        return drop(reservation_id) != null;
+    }
+
+    // Take the held units out of stock for good, soonest-expiring batches first. If the batches
+    // cannot cover the hold it is released and InsufficientStockException is thrown; if the
+    // database fails, the hold is kept so the order can be committed again.
+    public StockAllocation commit(String reservation_id) throws SQLException {
+        // Claimed before allocating, so a concurrent commit, release or expiry cannot take it too
+        Reservation reservation = holds.remove(reservation_id);
+        if (reservation == null) {
+            throw new IllegalStateException("Reservation " + reservation_id + " has expired or was already released.");
+        }
+        StockAllocation allocation;
+        try {
+            // Publishes the new stock level to this service before returning, so on-hand drops
+            // before reserved does and available-to-promise never overshoots
+            allocation = allocator.allocate(reservation.productId(), reservation.quantity());
+        } catch (InsufficientStockException e) {
+            unreserve(reservation);
+            throw e;
+        } catch (SQLException | RuntimeException e) {
+            // Its units are still counted as reserved; the expiry wheel may have passed over it
+            // while it was claimed, so it is scheduled again
+            holds.put(reservation_id, reservation);
+            schedule(reservation);
+            throw e;
+        }
+        unreserve(reservation);
+        return allocation;
+    }
+
+    // Allocate an order that has no hold (product ID -> quantity), all lines or none, as
+    // StockAllocator.allocateAll does. Only units available to promise can be taken, so stock
+    // held for other orders is never allocated; the units count as reserved while the allocation
+    // runs, so a concurrent reserve() cannot promise them either. Nothing is persisted for them.
+    public List<StockAllocation> allocate(Map<Integer, Integer> lines) throws SQLException {
+        Map<Integer, Integer> ordered = new TreeMap<>(lines);
+        for (Map.Entry<Integer, Integer> line : ordered.entrySet()) {
+            if (line.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity for product " + line.getKey() + " must be positive: " + line.getValue());
+            }
+        }
+        List<Map.Entry<Integer, Integer>> claimed = new ArrayList<>(ordered.size());
+        try {
+            for (Map.Entry<Integer, Integer> line : ordered.entrySet()) {
+                claim(line.getKey(), line.getValue());
+                claimed.add(line);
+            }
+            // Publishes the new stock levels before returning, as in commit()
+            return allocator.allocateAll(ordered);
+        } finally {
+            for (Map.Entry<Integer, Integer> line : claimed) {
+                unclaim(line.getKey(), line.getValue());
+            }
+        }
+    }
+
+    public Reservation getReservation(String reservation_id) {
+        return holds.get(reservation_id);
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    @Override
+    public void productChanged(ProductRecord product) {
+        ReentrantLock lock = stripe(product.productId());
+        lock.lock();
+        try {
+            Counter counter = counters.computeIfAbsent(product.productId(), id -> new Counter());
+            if (product.version() >= counter.version) {
+                counter.onHand = product.quantityInStock();
+                counter.version = product.version();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void productDeleted(int product_id) {
+        ReentrantLock lock = stripe(product_id);
+        lock.lock();
+        try {
+            counters.remove(product_id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Write queued hold changes to Stock_Reservations; changes that fail stay queued
+    public void flush() throws SQLException {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        List<Reservation> upserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        Map<String, Reservation> taken = new HashMap<>();
+        for (String reservation_id : new ArrayList<>(pendingWrites.keySet())) {
+            Reservation write = pendingWrites.remove(reservation_id);
+            if (write == null) {
+                continue;
+            }
+            taken.put(reservation_id, write);
+            if (write == DELETED) {
+                deletes.add(reservation_id);
+            } else {
+                upserts.add(write);
+            }
+        }
+        try {
+            String upsertSql = "INSERT INTO Stock_Reservations (reservation_id, product_id, quantity, expires_at) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity), expires_at = VALUES(expires_at)";
+            JdbcBatch.update(upsertSql, upserts, JdbcBatch.DEFAULT_CHUNK_SIZE, (pstmt, hold) -> {
+                pstmt.setString(1, hold.reservationId());
+                pstmt.setInt(2, hold.productId());
+                pstmt.setInt(3, hold.quantity());
+                pstmt.setTimestamp(4, new Timestamp(hold.expiresAtMillis()));
+            });
+            JdbcBatch.update("DELETE FROM Stock_Reservations WHERE reservation_id = ?", deletes,
+                    JdbcBatch.DEFAULT_CHUNK_SIZE, (pstmt, reservation_id) -> pstmt.setString(1, reservation_id));
+        } catch (SQLException | RuntimeException e) {
+            // Put back whatever has not been superseded by a newer change in the meantime
+            taken.forEach(pendingWrites::putIfAbsent);
+            throw e;
+        }
+    }
+
+    // Write the remaining changes and stop the background thread, e.g. when the application exits
+    public void stop() {
+        synchronized (startLock) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
+        flushQuietly();
+    }
+
+    private void loadHolds() throws SQLException {
+        long now = System.currentTimeMillis();
+        String sql = "SELECT * FROM Stock_Reservations";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = DatabaseConnection.prepareStreaming(conn, sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                Reservation hold = new Reservation(rs.getString("reservation_id"), rs.getInt("product_id"),
+                        rs.getInt("quantity"), rs.getTimestamp("expires_at").getTime());
+                if (hold.expiresAtMillis() <= now || !counters.containsKey(hold.productId())) {
+                    pendingWrites.put(hold.reservationId(), DELETED);
+                    continue;
+                }
+                counters.get(hold.productId()).reserved += hold.quantity();
+                holds.put(hold.reservationId(), hold);
+                schedule(hold);
+            }
+        }
+    }
+
+    // Remove a hold and give its units back; null if it was not held
+    private Reservation drop(String reservation_id) {
+        Reservation reservation = holds.remove(reservation_id);
+        if (reservation != null) {
+            unreserve(reservation);
+        }
+        return reservation;
+    }
+
+    private void unreserve(Reservation reservation) {
+        unclaim(reservation.productId(), reservation.quantity());
+        pendingWrites.put(reservation.reservationId(), DELETED);
+    }
+
+    // Count quantity units as reserved if that many are available to promise
+    private void claim(int product_id, int quantity) throws InsufficientStockException {
+        ReentrantLock lock = stripe(product_id);
+        lock.lock();
+        try {
+            Counter counter = counters.get(product_id);
+            int available = counter == null ? 0 : counter.onHand - counter.reserved;
+            if (available < quantity) {
+                throw new InsufficientStockException(product_id, quantity, Math.max(0, available));
+            }
+            counter.reserved += quantity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unclaim(int product_id, int quantity) {
+        ReentrantLock lock = stripe(product_id);
+        lock.lock();
+        try {
+            Counter counter = counters.get(product_id);
+            if (counter != null) {
+                counter.reserved -= quantity;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schedule(Reservation reservation) {
+        synchronized (wheel) {
+            // Rounded up, so by the time its slot comes round the hold has expired
+            long tick = Math.max((reservation.expiresAtMillis() + TICK_MS - 1) / TICK_MS, nextTick);
+            wheel.get((int) (tick % WHEEL_SLOTS)).add(reservation.reservationId());
+        }
+    }
+
+    // Release the holds in every slot whose tick has passed. A slot also holds IDs for later turns
+    // of the wheel (TTLs longer than WHEEL_SLOTS ticks); those are put back.
+    private void expireDue() {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> due = new ArrayList<>();
+            synchronized (wheel) {
+                for (; nextTick <= now / TICK_MS; nextTick++) {
+                    ArrayDeque<String> slot = wheel.get((int) (nextTick % WHEEL_SLOTS));
+                    for (int n = slot.size(); n > 0; n--) {
+                        String reservation_id = slot.poll();
+                        Reservation hold = holds.get(reservation_id);
+                        if (hold == null) {
+                            continue;
+                        }
+                        if (hold.expiresAtMillis() <= now) {
+                            due.add(reservation_id);
+                        } else {
+                            slot.add(reservation_id);
+                        }
+                    }
+                }
+            }
+            for (String reservation_id : due) {
+                drop(reservation_id);
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel every later run of a fixed-rate task
+            LOG.log(Level.WARNING, "Reservation expiry failed", e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            LOG.log(Level.WARNING, "Writing stock reservations failed; will retry", e);
+        }
+    }
+
+    private ReentrantLock stripe(int product_id) {
+        return stripes[Math.floorMod(product_id, STRIPES)];
+    }
+}
@@ -0,0 +1,249 @@
+package model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Versioned schema migrations: every V<version>__<description>.sql file in the migrations
+// directory is applied once, in version order, and recorded in Schema_Version with a checksum of
+// its contents. Run at startup before anything reads the database, so every install ends up with
+// the same tables, indexes and therefore query plans. Each dialect has its own directory under
+// sql/migrations (mysql, h2) holding the same versions written for that engine.
+//   - A migration edited after it was applied is refused instead of silently diverging.
+//   - Version 1 is the schema the application had before migrations existed. A database created
+//     back then (Products present but no Schema_Version rows) is baselined at version 1 instead
+//     of running it again, and the later versions then bring it up to date.
+//   - Concurrent starts against MySQL are serialised with a named lock, so a migration never runs
+//     twice. An embedded H2 database can only be opened by one process, so it needs none.
+// MySQL commits DDL immediately, so a migration that fails halfway must be finished by hand
+// before the next start; the error names the file and statement that failed.
+public final class SchemaMigrator {
+    private static final Logger LOG = Logger.getLogger(SchemaMigrator.class.getName());
+    public static final Path MIGRATIONS_ROOT = Path.of("sql", "migrations");
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "inventory_management.schema";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    // One migration file; checksum is the CRC32 of its contents with line endings normalised
+    public record Migration(int version, String description, Path file, long checksum) {
+    }
+
+    private SchemaMigrator() {
+    }
+
+    // Apply the configured database's migrations
+    public static int migrate() throws SQLException, IOException {
+        return migrate(MIGRATIONS_ROOT.resolve(DatabaseConnection.getConfig().dialect().directoryName()));
+    }
+
+    // Apply the pending migrations; returns how many were applied
+    public static int migrate(Path directory) throws SQLException, IOException {
+        List<Migration> migrations = scan(directory);
+        boolean locking = DatabaseConnection.getConfig().dialect().supportsNamedLocks();
+        try (Connection conn = openConnection(locking)) {
+            if (locking) {
+                lock(conn);
+            }
+            try {
+                createVersionTable(conn);
+                Map<Integer, Long> applied = appliedChecksums(conn);
+                if (applied.isEmpty() && !migrations.isEmpty() && migrations.get(0).version() == 1
+                        && tableExists(conn, "Products")) {
+                    Migration baseline = migrations.get(0);
+                    record(conn, baseline, baseline.description() + " (baseline)", 0);
+                    applied.put(baseline.version(), baseline.checksum());
+                    LOG.info("Existing schema baselined at version " + baseline.version());
+                }
+
+                int count = 0;
+                for (Migration migration : migrations) {
+                    Long checksum = applied.remove(migration.version());
+                    if (checksum == null) {
+                        apply(conn, migration);
+                        count++;
+                    } else if (checksum != migration.checksum()) {
+                        throw new SQLException("Migration " + migration.file().getFileName()
+                                + " was changed after it was applied; add a new migration instead");
+                    }
+                }
+                if (!applied.isEmpty()) {
+                    LOG.warning("Database has migrations this version does not know about: " + applied.keySet());
+                }
+                return count;
+            } finally {
+                if (locking) {
+                    unlock(conn);
+                }
+            }
+        }
+    }
+
+    // The migration files in the directory, lowest version first
+    public static List<Migration> scan(Path directory) throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "V*.sql")) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    throw new IOException("Migration file name must look like V1__description.sql: " + file);
+                }
+                CRC32 crc = new CRC32();
+                crc.update(read(file).getBytes(StandardCharsets.UTF_8));
+                migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                        matcher.group(2).replace('_', ' '), file, crc.getValue()));
+            }
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IOException("Two migrations with version " + migrations.get(i).version() + " in " + directory);
+            }
+        }
+        return migrations;
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException, IOException {
+        long start = System.nanoTime();
+        List<String> statements = statements(read(migration.file()));
+        try (Statement stmt = conn.createStatement()) {
+            for (int i = 0; i < statements.size(); i++) {
+                try {
+                    stmt.execute(statements.get(i));
+                } catch (SQLException e) {
+                    throw new SQLException("Migration " + migration.file().getFileName() + " failed at statement "
+                            + (i + 1) + ": " + e.getMessage(), e.getSQLState(), e);
+                }
+            }
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        record(conn, migration, migration.description(), elapsedMillis);
+        LOG.info("Applied migration " + migration.file().getFileName() + " in " + elapsedMillis + " ms");
+    }
+
+    // Statements end with a semicolon at the end of a line; lines starting with -- are comments
+    private static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (trimmed.endsWith(";")) {
+                statement.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(statement.toString());
+                statement.setLength(0);
+            } else {
+                statement.append(trimmed).append('\n');
+            }
+        }
+        if (!statement.toString().isBlank()) {
+            statements.add(statement.toString());
+        }
+        return statements;
+    }
+
+    private static String read(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8).replace("\r", "");
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS Schema_Version ("
+                    + "version INT PRIMARY KEY, "
+                    + "description VARCHAR(200) NOT NULL, "
+                    + "checksum BIGINT NOT NULL, "
+                    + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+                    + "execution_ms BIGINT NOT NULL)");
+        }
+    }
+
+    private static Map<Integer, Long> appliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT version, checksum FROM Schema_Version");
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void record(Connection conn, Migration migration, String description, long elapsedMillis) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO Schema_Version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+            pstmt.setInt(1, migration.version());
+            pstmt.setString(2, description);
+            pstmt.setLong(3, migration.checksum());
+            pstmt.setLong(4, elapsedMillis);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Looked up in the connection's own database, as written and in upper and lower case, since
+    // engines store unquoted names differently (H2 in upper case, MySQL as written or lowered)
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        String[] types = { "TABLE", "BASE TABLE" };
+        for (String name : new String[] { table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT) }) {
+            try (ResultSet rs = meta.getTables(conn.getCatalog(), null, name, types)) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another instance to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    // The named lock belongs to the session, and a pooled connection's session outlives close().
+    // Locking runs therefore get a connection of their own that really disconnects when closed.
+    private static Connection openConnection(boolean locking) throws SQLException {
+        if (!locking) {
+            return DatabaseConnection.getConnection();
+        }
+        DatabaseConfig config = DatabaseConnection.getConfig();
+        return DriverManager.getConnection(config.url(), config.user(), config.password());
+    }
+
+    // Never throws, so it cannot hide the error of a failed migration. If the release fails, the
+    // lock still goes when migrate() closes its dedicated connection and the session ends.
+    private static void unlock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            LOG.warning("Could not release the schema lock: " + e.getMessage());
+        }
+    }
+}
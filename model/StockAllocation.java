@@ -0,0 +1,13 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Stock taken for one order line: the product, the quantity, and the batches it came from in
+// the order they were picked (soonest expiry first)
+public record StockAllocation(int productId, int quantity, List<Pick> picks) {
+
+    // Units taken from one batch
+    public record Pick(int batchId, LocalDate expiryDate, int quantity) {
+    }
+}
@@ -0,0 +1,199 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// First-expired-first-out allocation across a product's batches. Each request takes units from
+// the unexpired batches with stock left, soonest expiry first (batches without a date last), and
+// decrements both Batches.quantity_in_batch and Products.quantity_in_stock in one transaction.
+//
+// Allocations of the same product in this process are serialised by a striped lock, so they
+// queue in memory instead of on database row locks; allocations of different products run in
+// parallel. The batch rows are also read FOR UPDATE, which keeps other processes out.
+// A multi-line order takes all of its lines in one transaction: one query for the batches of
+// every product, then one JDBC batch of batch updates and one of product updates.
+public class StockAllocator {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+
+    public StockAllocator() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StockAllocator(int stripeCount) {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Take quantity units of one product
+    public StockAllocation allocate(int product_id, int quantity) throws SQLException {
+        return allocateAll(Map.of(product_id, quantity)).get(0);
+    }
+
+    // Take every line of an order (product ID -> quantity), all or nothing. Allocations are
+    // returned in product ID order. Throws InsufficientStockException for the first line that
+    // cannot be filled, and then nothing is allocated.
+    public List<StockAllocation> allocateAll(Map<Integer, Integer> lines) throws SQLException {
+        if (lines.isEmpty()) {
+            return new ArrayList<>();
+        }
+        for (Map.Entry<Integer, Integer> line : lines.entrySet()) {
+            if (line.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity for product " + line.getKey() + " must be positive: " + line.getValue());
+            }
+        }
+        // Product ID order here and in the SQL, so concurrent orders lock in the same order
+        Map<Integer, Integer> ordered = new TreeMap<>(lines);
+        List<ReentrantLock> held = lock(ordered.keySet());
+        try {
+            return allocateLocked(ordered);
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private List<StockAllocation> allocateLocked(Map<Integer, Integer> ordered) throws SQLException {
+        List<StockAllocation> allocations = new ArrayList<>(ordered.size());
+        List<BatchRecord> changedBatches = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<Integer, List<BatchRecord>> batches = lockBatches(conn, ordered.keySet());
+                for (Map.Entry<Integer, Integer> line : ordered.entrySet()) {
+                    allocations.add(pick(line.getKey(), line.getValue(),
+                            batches.getOrDefault(line.getKey(), List.of()), changedBatches));
+                }
+                writeBatches(conn, changedBatches);
+                writeProducts(conn, ordered);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        for (BatchRecord batch : changedBatches) {
+            BatchEvents.fireChanged(batch);
+        }
+        Product.publishChanged(ordered.keySet());
+        return allocations;
+    }
+
+    // Unexpired batches with stock left for every product, each product's soonest expiry first
+    private static Map<Integer, List<BatchRecord>> lockBatches(Connection conn, Iterable<Integer> productIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        productIds.forEach(ids::add);
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String sql = "SELECT * FROM Batches WHERE product_id IN (" + placeholders + ")"
+                + " AND quantity_in_batch > 0 AND (expiry_date IS NULL OR expiry_date >= ?)"
+                + " ORDER BY product_id, expiry_date IS NULL, expiry_date, batch_id FOR UPDATE";
+
+        Map<Integer, List<BatchRecord>> batches = new LinkedHashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer product_id : ids) {
+                pstmt.setInt(i++, product_id);
+            }
+            pstmt.setObject(i, LocalDate.now());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    BatchRecord batch = BatchRecord.from(rs);
+                    batches.computeIfAbsent(batch.productId(), id -> new ArrayList<>()).add(batch);
+                }
+            }
+        }
+        return batches;
+    }
+
+    // Walk the batches in expiry order until the quantity is covered
+    private static StockAllocation pick(int product_id, int quantity, List<BatchRecord> batches,
+            List<BatchRecord> changedBatches) throws InsufficientStockException {
+        List<StockAllocation.Pick> picks = new ArrayList<>();
+        int remaining = quantity;
+        for (BatchRecord batch : batches) {
+            if (remaining == 0) {
+                break;
+            }
+            int taken = Math.min(remaining, batch.quantityInBatch());
+            picks.add(new StockAllocation.Pick(batch.batchId(), batch.expiryDate(), taken));
+            changedBatches.add(new BatchRecord(batch.batchId(), batch.productId(), batch.expiryDate(),
+                    batch.quantityInBatch() - taken, batch.version() + 1));
+            remaining -= taken;
+        }
+        if (remaining > 0) {
+            throw new InsufficientStockException(product_id, quantity, quantity - remaining);
+        }
+        return new StockAllocation(product_id, quantity, picks);
+    }
+
+    private static void writeBatches(Connection conn, List<BatchRecord> changedBatches) throws SQLException {
+        String sql = "UPDATE Batches SET quantity_in_batch = ?, version = version + 1 WHERE batch_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (BatchRecord batch : changedBatches) {
+                pstmt.setInt(1, batch.quantityInBatch());
+                pstmt.setInt(2, batch.batchId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // Products.quantity_in_stock must cover the allocation too; it can disagree with the batches
+    private static void writeProducts(Connection conn, Map<Integer, Integer> ordered) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(Product.STOCK_DELTA_SQL)) {
+            for (Map.Entry<Integer, Integer> line : ordered.entrySet()) {
+                pstmt.setInt(1, -line.getValue());
+                pstmt.setInt(2, line.getKey());
+                pstmt.setInt(3, -line.getValue());
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            int i = 0;
+            for (Map.Entry<Integer, Integer> line : ordered.entrySet()) {
+                if (counts[i++] == 0) {
+                    throw new InsufficientStockException(line.getKey(), line.getValue(), stockOf(conn, line.getKey()));
+                }
+            }
+        }
+    }
+
+    private static int stockOf(Connection conn, int product_id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT quantity_in_stock FROM Products WHERE product_id = ?")) {
+            pstmt.setInt(1, product_id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    // Lock the stripes of every product in stripe order; several products can share a stripe
+    private List<ReentrantLock> lock(Iterable<Integer> productIds) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Integer product_id : productIds) {
+            indexes.add(Math.floorMod(product_id, stripes.length));
+        }
+        List<ReentrantLock> held = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            stripes[index].lock();
+            held.add(stripes[index]);
+        }
+        return held;
+    }
+}
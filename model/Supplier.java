@@ -13,15 +13,21 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Supplier {
-    private final IntegerProperty supplierIdProperty;
-    private final StringProperty nameProperty;
-    private final StringProperty contactInfoProperty;
-    private final StringProperty addressProperty;
+    private IntegerProperty supplierIdProperty;
+    private StringProperty nameProperty;
+    private StringProperty contactInfoProperty;
+    private StringProperty addressProperty;
 
     private int supplier_id;
     private String name;
     private String contact_info;
     private String address;
+    // Row version read from the database; updates only succeed while it is unchanged
+    private int version;
+
+    // Suppliers rarely change, so lookups are served from memory and refreshed every few minutes
+    private static final ReadThroughCache<SupplierRecord> CACHE =
+            new ReadThroughCache<>(5 * 60_000, SupplierRecord::supplierId, Supplier::fetchAllRecords);
 
     // Constructor
     public Supplier(int supplier_id, String name, String contact_info, String address) {
@@ -30,38 +36,48 @@ public class Supplier {
         this.name = name;
         this.contact_info = contact_info;
         this.address = address;
+    }
 
-        // Initialize JavaFX properties and sync with standard fields
-        this.supplierIdProperty = new SimpleIntegerProperty(supplier_id);
-        this.nameProperty = new SimpleStringProperty(name);
-        this.contactInfoProperty = new SimpleStringProperty(contact_info);
-        this.addressProperty = new SimpleStringProperty(address);
-
-        // Add listeners to sync changes between standard fields and properties
-        addPropertyListeners();
+    public Supplier(SupplierRecord record) {
+        this(record.supplierId(), record.name(), record.contactInfo(), record.address());
+        this.version = record.version();
     }
 
-    private void addPropertyListeners() {
-        supplierIdProperty.addListener((obs, oldVal, newVal) -> this.supplier_id = newVal.intValue());
-        nameProperty.addListener((obs, oldVal, newVal) -> this.name = newVal);
-        contactInfoProperty.addListener((obs, oldVal, newVal) -> this.contact_info = newVal);
-        addressProperty.addListener((obs, oldVal, newVal) -> this.address = newVal);
+    // Immutable snapshot of this supplier without any JavaFX state
+    public SupplierRecord toRecord() {
+        return new SupplierRecord(supplier_id, name, contact_info, address, version);
     }
 
-    // Property getters for JavaFX binding
+    // Property getters for JavaFX binding; each property is only created when a view binds to it
     public IntegerProperty supplierIdProperty() {
+        if (supplierIdProperty == null) {
+            supplierIdProperty = new SimpleIntegerProperty(supplier_id);
+            supplierIdProperty.addListener((obs, oldVal, newVal) -> this.supplier_id = newVal.intValue());
+        }
         return supplierIdProperty;
     }
 
     public StringProperty nameProperty() {
+        if (nameProperty == null) {
+            nameProperty = new SimpleStringProperty(name);
+            nameProperty.addListener((obs, oldVal, newVal) -> this.name = newVal);
+        }
         return nameProperty;
     }
 
     public StringProperty contactInfoProperty() {
+        if (contactInfoProperty == null) {
+            contactInfoProperty = new SimpleStringProperty(contact_info);
+            contactInfoProperty.addListener((obs, oldVal, newVal) -> this.contact_info = newVal);
+        }
         return contactInfoProperty;
     }
 
     public StringProperty addressProperty() {
+        if (addressProperty == null) {
+            addressProperty = new SimpleStringProperty(address);
+            addressProperty.addListener((obs, oldVal, newVal) -> this.address = newVal);
+        }
         return addressProperty;
     }
 
@@ -72,7 +88,9 @@ public class Supplier {
 
     public void setSupplierId(int supplier_id) {
         this.supplier_id = supplier_id;
-        this.supplierIdProperty.set(supplier_id); // Sync with property
+        if (this.supplierIdProperty != null) {
+            this.supplierIdProperty.set(supplier_id); // Sync with property
+        }
     }
 
     public String getName() {
@@ -81,7 +99,9 @@ public class Supplier {
 
     public void setName(String name) {
         this.name = name;
-        this.nameProperty.set(name); // Sync with property
+        if (this.nameProperty != null) {
+            this.nameProperty.set(name); // Sync with property
+        }
     }
 
     public String getContactInfo() {
@@ -90,7 +110,9 @@ public class Supplier {
 
     public void setContactInfo(String contact_info) {
         this.contact_info = contact_info;
-        this.contactInfoProperty.set(contact_info); // Sync with property
+        if (this.contactInfoProperty != null) {
+            this.contactInfoProperty.set(contact_info); // Sync with property
+        }
     }
 
     public String getAddress() {
@@ -99,7 +121,13 @@ public class Supplier {
 
     public void setAddress(String address) {
         this.address = address;
-        this.addressProperty.set(address); // Sync with property
+        if (this.addressProperty != null) {
+            this.addressProperty.set(address); // Sync with property
+        }
+    }
+
+    public int getVersion() {
+        return version;
     }
 
     // CRUD Operations
@@ -113,12 +141,15 @@ public class Supplier {
             pstmt.setString(2, contact_info);
             pstmt.setString(3, address);
             pstmt.executeUpdate();
+            CACHE.invalidate();
 
             // Retrieve the generated ID
             try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     this.supplier_id = generatedKeys.getInt(1); // Set the generated ID in the current object
-                    this.supplierIdProperty.set(this.supplier_id);
+                    if (this.supplierIdProperty != null) {
+                        this.supplierIdProperty.set(this.supplier_id);
+                    }
                 } else {
                     throw new SQLException("Failed to retrieve generated supplier ID.");
                 }
@@ -126,16 +157,22 @@ public class Supplier {
         }
     }
 
-    // Update an existing supplier
+    // Update an existing supplier; only succeeds if the row still has the version this object was loaded with
     public void update() throws SQLException {
-        String sql = "UPDATE Suppliers SET name = ?, contact_info = ?, address = ? WHERE supplier_id = ?";
+        String sql = "UPDATE Suppliers SET name = ?, contact_info = ?, address = ?, version = version + 1 WHERE supplier_id = ? AND version = ?";
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, name);
             pstmt.setString(2, contact_info);
             pstmt.setString(3, address);
             pstmt.setInt(4, supplier_id);
-            pstmt.executeUpdate();
+            pstmt.setInt(5, version);
+            int updated = pstmt.executeUpdate();
+            CACHE.invalidate();
+            if (updated == 0) {
+                throw new OptimisticLockException("Suppliers", supplier_id);
+            }
+            version++;
         }
     }
 
@@ -146,6 +183,19 @@ public class Supplier {
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, supplier_id);
             pstmt.executeUpdate();
+            CACHE.invalidate();
+        }
+    }
+
+    // Fetch a single supplier, or null if it does not exist
+    public static Supplier fetchById(int supplier_id) throws SQLException {
+        String sql = "SELECT * FROM Suppliers WHERE supplier_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, supplier_id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new Supplier(SupplierRecord.from(rs)) : null;
+            }
         }
     }
 
@@ -157,12 +207,40 @@ public class Supplier {
                 PreparedStatement pstmt = conn.prepareStatement(sql);
                 ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                Supplier supplier = new Supplier(
-                        rs.getInt("supplier_id"),
-                        rs.getString("name"),
-                        rs.getString("contact_info"),
-                        rs.getString("address"));
-                suppliers.add(supplier);
+                suppliers.add(new Supplier(SupplierRecord.from(rs)));
+            }
+        }
+        return suppliers;
+    }
+
+    // Look up a supplier by ID from the in-memory cache; null if there is no such supplier
+    public static SupplierRecord findById(int supplier_id) throws SQLException {
+        return CACHE.get(supplier_id);
+    }
+
+    // All suppliers from the in-memory cache, as new editable objects
+    public static List<Supplier> fetchAllCached() throws SQLException {
+        List<Supplier> suppliers = new ArrayList<>();
+        for (SupplierRecord record : CACHE.getAll()) {
+            suppliers.add(new Supplier(record));
+        }
+        return suppliers;
+    }
+
+    // The supplier cache, e.g. to read its hit/miss counters or force a reload
+    public static ReadThroughCache<SupplierRecord> cache() {
+        return CACHE;
+    }
+
+    // Fetch all suppliers as plain records
+    public static List<SupplierRecord> fetchAllRecords() throws SQLException {
+        List<SupplierRecord> suppliers = new ArrayList<>();
+        String sql = "SELECT * FROM Suppliers";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                suppliers.add(SupplierRecord.from(rs));
             }
         }
         return suppliers;
@@ -0,0 +1,17 @@
+package model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Immutable row of the Suppliers table for code that never binds to the UI
+public record SupplierRecord(int supplierId, String name, String contactInfo, String address, int version) {
+
+    public static SupplierRecord from(ResultSet rs) throws SQLException {
+        return new SupplierRecord(
+                rs.getInt("supplier_id"),
+                rs.getString("name"),
+                rs.getString("contact_info"),
+                rs.getString("address"),
+                rs.getInt("version"));
+    }
+}
@@ -0,0 +1,149 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Filter and sort order for one table, evaluated by the database. Subclasses add their WHERE
+// conditions and list the columns that may be sorted on; this class turns them into count and
+// keyset page queries:
+//   WHERE <filters> AND (sort, id) > (?, ?) ORDER BY sort, id LIMIT ?
+// The row-value comparison, unlike the equivalent OR of two conditions, is one range on an index
+// over (sort column, id), so each page is an index range scan however deep it is.
+// Set the filter up before handing it to a table; it is read from background threads afterwards.
+public abstract class TableFilter<T> implements PageSource<T, PageKey> {
+    private final String table;
+    private final String idColumn;
+    private String sortColumn;
+    private boolean ascending = true;
+
+    protected TableFilter(String table, String idColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.sortColumn = idColumn;
+    }
+
+    // Columns that may be sorted on, each with how to read that column's value from a row.
+    // Sort columns must be NOT NULL; only names in this map ever reach the SQL.
+    protected abstract Map<String, Function<T, Object>> sortColumns();
+
+    // Append "column op ?" conditions and their values for every filter that is set
+    protected abstract void addConditions(List<String> conditions, List<Object> params);
+
+    protected abstract T read(ResultSet rs) throws SQLException;
+
+    protected abstract int idOf(T row);
+
+    // Sort by a column from sortColumns(); ties are always broken by ID in the same direction
+    public TableFilter<T> sortBy(String column, boolean ascending) {
+        if (!sortColumns().containsKey(column)) {
+            throw new IllegalArgumentException("Cannot sort " + table + " by " + column);
+        }
+        this.sortColumn = column;
+        this.ascending = ascending;
+        return this;
+    }
+
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Override
+    public int count() throws SQLException {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addConditions(conditions, params);
+        String sql = "SELECT COUNT(*) FROM " + table + where(conditions);
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    @Override
+    public List<T> fetchAfter(PageKey key, int limit) throws SQLException {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addConditions(conditions, params);
+        if (key != null) {
+            String op = ascending ? ">" : "<";
+            if (sortColumn.equals(idColumn)) {
+                conditions.add(idColumn + " " + op + " ?");
+                params.add(key.id());
+            } else {
+                conditions.add("(" + sortColumn + ", " + idColumn + ") " + op + " (?, ?)");
+                params.add(key.sortValue());
+                params.add(key.id());
+            }
+        }
+        params.add(limit);
+        return query("SELECT * FROM " + table + where(conditions) + orderBy() + " LIMIT ?", params, limit);
+    }
+
+    @Override
+    public List<T> fetchAt(int offset, int limit) throws SQLException {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addConditions(conditions, params);
+        params.add(limit);
+        params.add(offset);
+        return query("SELECT * FROM " + table + where(conditions) + orderBy() + " LIMIT ? OFFSET ?", params, limit);
+    }
+
+    @Override
+    public PageKey keyOf(T row) {
+        return new PageKey(sortColumns().get(sortColumn).apply(row), idOf(row));
+    }
+
+    // Escape LIKE wildcards so user input is matched literally, then append % for a prefix match
+    // (a leading-constant LIKE can use the column's index)
+    protected static String prefixPattern(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private List<T> query(String sql, List<Object> params, int limit) throws SQLException {
+        List<T> rows = new ArrayList<>(limit);
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(read(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private String orderBy() {
+        String direction = ascending ? " ASC" : " DESC";
+        if (sortColumn.equals(idColumn)) {
+            return " ORDER BY " + idColumn + direction;
+        }
+        return " ORDER BY " + sortColumn + direction + ", " + idColumn + direction;
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static void bind(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+}
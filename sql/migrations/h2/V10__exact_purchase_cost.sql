@@ -0,0 +1,2 @@
+-- Purchase cost as an exact amount in cents instead of a floating-point number
+ALTER TABLE Purchase_History MODIFY cost DECIMAL(12, 2) NOT NULL;
@@ -0,0 +1,4 @@
+-- Row versions for optimistic concurrency control on Product, Batch and Supplier updates
+ALTER TABLE Products ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE Batches ADD COLUMN version INT NOT NULL DEFAULT 0;
+ALTER TABLE Suppliers ADD COLUMN version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+-- Indexes for server-side filtering and sorting of the product and purchase tables.
+-- Each ends with the primary key so keyset pages (sort column, id) are a single index range scan.
+CREATE INDEX idx_products_name ON Products (name, product_id);
+CREATE INDEX idx_products_sku ON Products (sku);
+CREATE INDEX idx_products_category ON Products (category_id, product_id);
+CREATE INDEX idx_products_supplier ON Products (supplier_id, product_id);
+CREATE INDEX idx_products_quantity ON Products (quantity_in_stock, product_id);
+CREATE INDEX idx_products_reorder_level ON Products (reorder_level, product_id);
+CREATE INDEX idx_products_batch ON Products (batch_id, product_id);
+CREATE INDEX idx_purchase_date ON Purchase_History (purchase_date, purchase_id);
+CREATE INDEX idx_purchase_product_date ON Purchase_History (product_id, purchase_date);
+CREATE INDEX idx_purchase_supplier_date ON Purchase_History (supplier_id, purchase_date);
+CREATE INDEX idx_purchase_quantity ON Purchase_History (quantity, purchase_id);
+CREATE INDEX idx_purchase_cost ON Purchase_History (cost, purchase_id);
@@ -0,0 +1,32 @@
+-- Batch expiry dates as real dates so they can be compared and indexed. Values that are not real
+-- ISO dates (YYYY-MM-DD, e.g. not 02/03/2027 or 2024-02-30) cannot be converted; their batches
+-- get no expiry date and the original text is kept in expiry_date_unparsed. After upgrading,
+-- review those batches with
+--   SELECT * FROM Batches WHERE expiry_date_unparsed IS NOT NULL
+-- set their expiry dates by hand, and then drop the column.
+-- Every step can run again, so a start that fails halfway is finished by the next one.
+ALTER TABLE Batches ADD COLUMN IF NOT EXISTS expiry_date_unparsed VARCHAR(255) NULL;
+UPDATE Batches SET expiry_date_unparsed = expiry_date WHERE TRIM(expiry_date) <> '';
+UPDATE Batches SET expiry_date = NULLIF(TRIM(expiry_date), '');
+-- The date is checked field by field rather than by converting it: a failed conversion is an
+-- error in MySQL's strict mode, and the CASE keeps the numbers from being read before the shape
+-- is known to be right. MySQL supports years from 1000 on.
+UPDATE Batches SET expiry_date = NULL WHERE expiry_date IS NOT NULL AND NOT (CASE
+    WHEN expiry_date NOT REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}$' THEN FALSE
+    ELSE CAST(SUBSTRING(expiry_date, 1, 4) AS SIGNED) >= 1000
+        AND CAST(SUBSTRING(expiry_date, 6, 2) AS SIGNED) BETWEEN 1 AND 12
+        AND CAST(SUBSTRING(expiry_date, 9, 2) AS SIGNED) BETWEEN 1 AND CASE CAST(SUBSTRING(expiry_date, 6, 2) AS SIGNED)
+            WHEN 2 THEN CASE
+                WHEN MOD(CAST(SUBSTRING(expiry_date, 1, 4) AS SIGNED), 4) = 0
+                    AND (MOD(CAST(SUBSTRING(expiry_date, 1, 4) AS SIGNED), 100) <> 0
+                        OR MOD(CAST(SUBSTRING(expiry_date, 1, 4) AS SIGNED), 400) = 0) THEN 29
+                ELSE 28 END
+            WHEN 4 THEN 30
+            WHEN 6 THEN 30
+            WHEN 9 THEN 30
+            WHEN 11 THEN 30
+            ELSE 31 END
+    END);
+-- Converted values need no copy
+UPDATE Batches SET expiry_date_unparsed = NULL WHERE expiry_date IS NOT NULL;
+ALTER TABLE Batches MODIFY expiry_date DATE NULL;
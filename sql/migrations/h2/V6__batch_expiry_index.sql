@@ -0,0 +1,2 @@
+-- First-expired-first-out allocation reads a product's batches in expiry order
+CREATE INDEX idx_batches_product_expiry ON Batches (product_id, expiry_date, batch_id);
@@ -0,0 +1,8 @@
+-- Unconfirmed holds on stock, written behind by ReservationService so they survive a restart
+CREATE TABLE Stock_Reservations (
+    reservation_id CHAR(36) PRIMARY KEY,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (product_id) REFERENCES Products(product_id) ON DELETE CASCADE
+);
@@ -0,0 +1,14 @@
+-- Daily and monthly purchase totals per product, supplier and category, maintained by every
+-- Purchase_History write. The application fills it from the existing history on the next start
+-- (PurchaseRollups.backfillIfMissing).
+CREATE TABLE Purchase_Rollups (
+    period VARCHAR(5) NOT NULL,
+    period_start DATE NOT NULL,
+    dimension VARCHAR(8) NOT NULL,
+    dimension_id INT NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    cost DECIMAL(19, 4) NOT NULL DEFAULT 0,
+    purchases BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (period, dimension, dimension_id, period_start),
+    INDEX idx_rollups_period (period, dimension, period_start)
+);
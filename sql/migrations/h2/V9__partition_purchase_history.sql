@@ -0,0 +1,6 @@
+-- H2 version of mysql/V9__partition_purchase_history.sql. H2 has no table partitioning, so
+-- Purchase_History stays one table and PurchasePartitions does nothing; the column and primary
+-- key changes are the same as on MySQL.
+ALTER TABLE Purchase_History MODIFY purchase_date DATE NOT NULL;
+ALTER TABLE Purchase_History DROP PRIMARY KEY;
+ALTER TABLE Purchase_History ADD PRIMARY KEY (purchase_id, purchase_date);
@@ -0,0 +1,24 @@
+-- Stored flag for products below their reorder level. A comparison of two columns cannot use
+-- an index, so the low-stock queries filter on this column instead (see Product.fetchLowStock).
+ALTER TABLE Products ADD COLUMN low_stock BOOLEAN GENERATED ALWAYS AS (quantity_in_stock < reorder_level) STORED;
+CREATE INDEX idx_products_low_stock ON Products (low_stock, product_id);
+
+-- Covers the per-product sums over a date range (PurchaseHistory.fetchDailyVelocity)
+CREATE INDEX idx_purchase_date_product ON Purchase_History (purchase_date, product_id, quantity);
+
+-- Products of a supplier and suppliers of a product, each read from the index alone
+CREATE INDEX idx_linkage_supplier_product ON Supplier_Product_Linkage (supplier_id, product_id);
+CREATE INDEX idx_linkage_product_supplier ON Supplier_Product_Linkage (product_id, supplier_id);
+
+-- Foreign keys. Batches lookups by product_id and fk_batches_product use idx_batches_product_expiry
+-- from V6, which starts with product_id. Products.batch_id gets none: batches reference their
+-- product, so requiring the batch first would make the first product impossible to insert.
+-- Existing rows that violate these must be fixed by hand before this migration can run.
+ALTER TABLE Products ADD CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES Categories(category_id);
+ALTER TABLE Products ADD CONSTRAINT fk_products_supplier FOREIGN KEY (supplier_id) REFERENCES Suppliers(supplier_id);
+ALTER TABLE Batches ADD CONSTRAINT fk_batches_product FOREIGN KEY (product_id) REFERENCES Products(product_id);
+ALTER TABLE Supplier_Product_Linkage ADD CONSTRAINT fk_linkage_supplier FOREIGN KEY (supplier_id) REFERENCES Suppliers(supplier_id) ON DELETE CASCADE;
+ALTER TABLE Supplier_Product_Linkage ADD CONSTRAINT fk_linkage_product FOREIGN KEY (product_id) REFERENCES Products(product_id) ON DELETE CASCADE;
+
+-- Fresh index statistics, so the optimizer picks the same plans on every install
+ANALYZE TABLE Categories, Suppliers, Products, Batches, Supplier_Product_Linkage, Purchase_History;
@@ -0,0 +1,48 @@
+-- The schema the application was written against before migrations were versioned. Databases
+-- that already have these tables are baselined at this version instead of running it, and are
+-- then brought up to date by the later versions; see SchemaMigrator.
+
+CREATE TABLE Categories (
+    category_id INT AUTO_INCREMENT PRIMARY KEY,
+    category_name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE Suppliers (
+    supplier_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    contact_info VARCHAR(255),
+    address VARCHAR(255)
+);
+
+CREATE TABLE Products (
+    product_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    category_id INT NOT NULL,
+    sku VARCHAR(64),
+    quantity_in_stock INT NOT NULL DEFAULT 0,
+    reorder_level INT NOT NULL DEFAULT 0,
+    supplier_id INT NOT NULL,
+    batch_id INT
+);
+
+CREATE TABLE Batches (
+    batch_id INT AUTO_INCREMENT PRIMARY KEY,
+    product_id INT NOT NULL,
+    expiry_date VARCHAR(255),
+    quantity_in_batch INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE Supplier_Product_Linkage (
+    supplier_product_id INT AUTO_INCREMENT PRIMARY KEY,
+    supplier_id INT NOT NULL,
+    product_id INT NOT NULL
+);
+
+CREATE TABLE Purchase_History (
+    purchase_id INT AUTO_INCREMENT PRIMARY KEY,
+    product_id INT NOT NULL,
+    supplier_id INT NOT NULL,
+    purchase_date DATE,
+    quantity INT NOT NULL,
+    cost DOUBLE NOT NULL
+);
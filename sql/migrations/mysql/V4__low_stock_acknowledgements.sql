@@ -0,0 +1,6 @@
+-- Acknowledged low-stock alerts; a row is removed when the product is restocked so it alerts again
+CREATE TABLE Low_Stock_Acknowledgements (
+    product_id INT PRIMARY KEY,
+    acknowledged_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (product_id) REFERENCES Products(product_id) ON DELETE CASCADE
+);
@@ -0,0 +1,10 @@
+-- Purchase_History partitioned by month on purchase_date (see PurchasePartitions); the monthly
+-- partitions are split off p_future by the application at startup. MySQL needs the partitioning
+-- column in every unique key and does not support foreign keys on partitioned tables, so the
+-- primary key gains purchase_date and Purchase_History gets no foreign keys. Purchases without
+-- a date must be given one by hand before this migration can run.
+ALTER TABLE Purchase_History MODIFY purchase_date DATE NOT NULL;
+ALTER TABLE Purchase_History DROP PRIMARY KEY, ADD PRIMARY KEY (purchase_id, purchase_date);
+ALTER TABLE Purchase_History PARTITION BY RANGE COLUMNS (purchase_date) (
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
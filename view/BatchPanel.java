@@ -1,6 +1,12 @@
 package view;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import controller.AsyncExecutor;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -9,22 +15,29 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import model.Batch;
+import model.OptimisticLockException;
 import controller.BatchController;
 
 public class BatchPanel extends VBox {
 
     private TableView<Batch> batchTable;
-    private TextField idField, productIdField, expiryDateField, quantityField;
+    private TextField idField, productIdField, quantityField;
+    private DatePicker expiryDatePicker;
     private Button addButton, updateButton, deleteButton, clearButton;
+    private CheckBox expiringOnlyCheckBox;
     private BatchController batchController;
     private ObservableList<Batch> batchList;
+    // Batches expiring within the warning window, read from the in-memory expiry index
+    private final ObservableList<Batch> expiringList = FXCollections.observableArrayList();
+    private boolean expiringRefreshQueued;
 
-    public BatchPanel() throws SQLException {
+    // Built on the FX thread from batches read beforehand (see LazyTabLoader)
+    public BatchPanel(List<Batch> batches) {
         this.getStyleClass().add("panel");
 
         // Initialize controller and data
         batchController = new BatchController();
-        batchList = FXCollections.observableArrayList(batchController.fetchBatchesByProduct(0)); // Sample data
+        batchList = FXCollections.observableArrayList(batches);
 
         // Header label
         Label headerLabel = new Label("Batch Management");
@@ -54,9 +67,8 @@ public class BatchPanel extends VBox {
         // Expiry Date Field
         Label expiryDateLabel = new Label("Expiry Date:");
         expiryDateLabel.getStyleClass().add("form-label");
-        expiryDateField = new TextField();
-        expiryDateField.setPromptText("Enter Expiry Date");
-        expiryDateField.getStyleClass().add("text-field");
+        expiryDatePicker = new DatePicker();
+        expiryDatePicker.setPromptText("Select Expiry Date");
 
         // Quantity Field
         Label quantityLabel = new Label("Quantity:");
@@ -71,7 +83,7 @@ public class BatchPanel extends VBox {
         form.add(productIdLabel, 0, 1);
         form.add(productIdField, 1, 1);
         form.add(expiryDateLabel, 0, 2);
-        form.add(expiryDateField, 1, 2);
+        form.add(expiryDatePicker, 1, 2);
         form.add(quantityLabel, 0, 3);
         form.add(quantityField, 1, 3);
 
@@ -89,6 +101,17 @@ public class BatchPanel extends VBox {
 
         buttonBox.getChildren().addAll(addButton, updateButton, deleteButton, clearButton);
 
+        // Switch the table to the batches that expire soon
+        expiringOnlyCheckBox = new CheckBox("Only batches expiring within " + batchController.getExpiryWarningDays() + " days");
+        expiringOnlyCheckBox.setOnAction(e -> {
+            if (expiringOnlyCheckBox.isSelected()) {
+                batchTable.setItems(expiringList);
+                refreshExpiring();
+            } else {
+                batchTable.setItems(batchList);
+            }
+        });
+
         // Set up TableView to display batches
         batchTable = new TableView<>();
 
@@ -102,9 +125,9 @@ public class BatchPanel extends VBox {
         productIdColumn.setCellFactory(column -> createCenterAlignedCellForInteger());
         productIdColumn.setPrefWidth(150);
 
-        TableColumn<Batch, String> expiryDateColumn = new TableColumn<>("Expiry Date");
+        TableColumn<Batch, LocalDate> expiryDateColumn = new TableColumn<>("Expiry Date");
         expiryDateColumn.setCellValueFactory(cellData -> cellData.getValue().expiryDateProperty());
-        expiryDateColumn.setCellFactory(column -> createCenterAlignedCellForString());
+        expiryDateColumn.setCellFactory(column -> createCenterAlignedCellForDate());
         expiryDateColumn.setPrefWidth(150);
 
         TableColumn<Batch, Integer> quantityColumn = new TableColumn<>("Quantity");
@@ -127,6 +150,8 @@ public class BatchPanel extends VBox {
                 addBatch();
             } catch (SQLException ex) {
                 showAlert("Database Error", "Failed to add batch: " + ex.getMessage());
+            } catch (IllegalArgumentException ex) {
+                showAlert("Invalid Input", ex.getMessage());
             }
         });
 
@@ -135,6 +160,8 @@ public class BatchPanel extends VBox {
                 updateBatch();
             } catch (SQLException ex) {
                 showAlert("Database Error", "Failed to update batch: " + ex.getMessage());
+            } catch (IllegalArgumentException ex) {
+                showAlert("Invalid Input", ex.getMessage());
             }
         });
 
@@ -145,7 +172,10 @@ public class BatchPanel extends VBox {
         // Layout adjustments
         this.setSpacing(10);
         this.setPadding(new Insets(20));
-        this.getChildren().addAll(headerLabel, form, buttonBox, batchTable);
+        this.getChildren().addAll(headerLabel, form, buttonBox, expiringOnlyCheckBox, batchTable);
+
+        // Keep the expiring view current as the sweeper announces batches
+        batchController.watchExpiry(event -> Platform.runLater(this::queueExpiringRefresh));
 
         // Populate form fields when a row in the TableView is selected
         batchTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
@@ -166,25 +196,61 @@ public class BatchPanel extends VBox {
         };
     }
 
-    private TableCell<Batch, String> createCenterAlignedCellForString() {
+    private TableCell<Batch, LocalDate> createCenterAlignedCellForDate() {
         return new TableCell<>() {
             @Override
-            protected void updateItem(String item, boolean empty) {
+            protected void updateItem(LocalDate item, boolean empty) {
                 super.updateItem(item, empty);
-                setText(empty ? null : item);
+                setText(empty || item == null ? null : item.toString());
                 setStyle("-fx-alignment: CENTER;");
             }
         };
     }
 
+    // Many events can arrive at once (e.g. the first sweep); re-read the index once for all of them
+    private void queueExpiringRefresh() {
+        if (!expiringRefreshQueued && expiringOnlyCheckBox.isSelected()) {
+            expiringRefreshQueued = true;
+            Platform.runLater(() -> {
+                expiringRefreshQueued = false;
+                refreshExpiring();
+            });
+        }
+    }
+
+    private void refreshExpiring() {
+        batchController.fetchExpiringBatchesAsync(batchController.getExpiryWarningDays())
+                .whenCompleteAsync((batches, error) -> {
+                    if (error != null) {
+                        showAlert("Database Error", "Failed to load expiring batches: " + AsyncExecutor.unwrap(error).getMessage());
+                    } else {
+                        expiringList.setAll(batches);
+                    }
+                }, Platform::runLater);
+    }
+
+    // The date typed or picked; text typed without pressing Enter is not committed by the picker
+    private LocalDate readExpiryDate() {
+        String text = expiryDatePicker.getEditor().getText();
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return expiryDatePicker.getConverter().fromString(text.trim());
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid expiry date: " + text);
+        }
+    }
+
     private void addBatch() throws SQLException {
         int productId = Integer.parseInt(productIdField.getText());
-        String expiryDate = expiryDateField.getText();
+        LocalDate expiryDate = readExpiryDate();
         int quantity = Integer.parseInt(quantityField.getText());
 
         Batch batch = new Batch(0, productId, expiryDate, quantity);
         batchController.addBatch(batch);
         batchList.add(batch);
+        queueExpiringRefresh();
         clearFields();
     }
 
@@ -192,10 +258,17 @@ public class BatchPanel extends VBox {
         Batch selectedBatch = batchTable.getSelectionModel().getSelectedItem();
         if (selectedBatch != null) {
             selectedBatch.setProductId(Integer.parseInt(productIdField.getText()));
-            selectedBatch.setExpiryDate(expiryDateField.getText());
+            selectedBatch.setExpiryDate(readExpiryDate());
             selectedBatch.setQuantityInBatch(Integer.parseInt(quantityField.getText()));
-            batchController.updateBatch(selectedBatch);
+            try {
+                batchController.updateBatch(selectedBatch);
+            } catch (OptimisticLockException ex) {
+                reloadBatch(selectedBatch);
+                showAlert("Update Conflict", "This batch was changed by another user. The latest values have been loaded; please apply your changes again.");
+                return;
+            }
             batchTable.refresh();
+            queueExpiringRefresh();
             clearFields();
         } else {
             showAlert("No Selection", "Please select a batch to update.");
@@ -220,7 +293,9 @@ public class BatchPanel extends VBox {
                     for (Batch batch : selectedBatches) {
                         batchController.deleteBatch(batch.getBatchId());
                     }
-                    batchList.removeAll(selectedBatches);
+                    List<Batch> deleted = new ArrayList<>(selectedBatches);
+                    batchList.removeAll(deleted);
+                    expiringList.removeAll(deleted);
                     clearFields();
                 } catch (SQLException ex) {
                     showAlert("Database Error", "Failed to delete batches: " + ex.getMessage());
@@ -229,17 +304,32 @@ public class BatchPanel extends VBox {
         });
     }
 
+    // Replace a stale row with the latest copy from the database
+    private void reloadBatch(Batch staleBatch) throws SQLException {
+        Batch latest = batchController.fetchBatch(staleBatch.getBatchId());
+        int index = batchList.indexOf(staleBatch);
+        if (latest == null) {
+            batchList.remove(staleBatch);
+            clearFields();
+        } else if (index >= 0) {
+            batchList.set(index, latest);
+            batchTable.getSelectionModel().select(index);
+            populateFields(latest);
+        }
+    }
+
     private void clearFields() {
         idField.clear();
         productIdField.clear();
-        expiryDateField.clear();
+        expiryDatePicker.setValue(null);
+        expiryDatePicker.getEditor().clear();
         quantityField.clear();
     }
 
     private void populateFields(Batch batch) {
         idField.setText(String.valueOf(batch.getBatchId()));
         productIdField.setText(String.valueOf(batch.getProductId()));
-        expiryDateField.setText(batch.getExpiryDate());
+        expiryDatePicker.setValue(batch.getExpiryDate());
         quantityField.setText(String.valueOf(batch.getQuantityInBatch()));
     }
 
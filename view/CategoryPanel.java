@@ -1,6 +1,7 @@
 package view;
 
 import java.sql.SQLException;
+import java.util.List;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -19,12 +20,13 @@ public class CategoryPanel extends VBox {
     private CategoryController categoryController;
     private ObservableList<Category> categoryList;
 
-    public CategoryPanel() throws SQLException {
+    // Built on the FX thread from categories read beforehand (see LazyTabLoader)
+    public CategoryPanel(List<Category> categories) {
         this.getStyleClass().add("panel");
 
         // Initialize controller and data
         categoryController = new CategoryController();
-        categoryList = FXCollections.observableArrayList(categoryController.fetchAllCategories());
+        categoryList = FXCollections.observableArrayList(categories);
 
         // Header label
         Label headerLabel = new Label("Category Management");
@@ -0,0 +1,115 @@
+package view;
+
+import controller.AsyncExecutor;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.Tab;
+import javafx.scene.layout.StackPane;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+// Builds each tab's panel the first time the tab is shown instead of at startup. The data a
+// panel needs up front is read on a background thread while the tab shows a spinner, and the
+// panel is then built from it on the FX thread, which JavaFX controls and observable lists
+// require. Several tabs opened in quick succession load in parallel and the window never waits
+// for them. Tabs that are never opened are never loaded.
+public class LazyTabLoader {
+    private static final Logger LOG = Logger.getLogger(LazyTabLoader.class.getName());
+
+    // Reads what a panel shows first; runs on a background thread and may block on the database
+    @FunctionalInterface
+    public interface DataLoader<D> {
+        D load() throws SQLException;
+    }
+
+    // Creates a panel from the loaded data on the FX thread; must not block
+    @FunctionalInterface
+    public interface PanelFactory<D> {
+        Node create(D data) throws SQLException;
+    }
+
+    // Creates a panel that loads its own data in the background, e.g. through a PagedList
+    @FunctionalInterface
+    public interface SelfLoadingPanelFactory {
+        Node create() throws SQLException;
+    }
+
+    private final long startNanos;
+    private final BiConsumer<String, String> errorHandler;
+    private final Map<String, Long> loadMillis = new LinkedHashMap<>();
+
+    // errorHandler receives (title, message) on the FX thread when a panel fails to load
+    public LazyTabLoader(long startNanos, BiConsumer<String, String> errorHandler) {
+        this.startNanos = startNanos;
+        this.errorHandler = errorHandler;
+    }
+
+    public void register(Tab tab, String name, SelfLoadingPanelFactory factory) {
+        register(tab, name, () -> null, ignored -> factory.create());
+    }
+
+    public <D> void register(Tab tab, String name, DataLoader<D> loader, PanelFactory<D> factory) {
+        tab.setContent(placeholder());
+        if (tab.isSelected()) {
+            load(tab, name, loader, factory);
+            return;
+        }
+        ChangeListener<Boolean> onFirstSelect = new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Boolean> obs, Boolean wasSelected, Boolean selected) {
+                if (selected) {
+                    tab.selectedProperty().removeListener(this);
+                    load(tab, name, loader, factory);
+                }
+            }
+        };
+        tab.selectedProperty().addListener(onFirstSelect);
+    }
+
+    // Per-panel load times in milliseconds, in the order the panels finished
+    public synchronized Map<String, Long> getLoadMillis() {
+        return new LinkedHashMap<>(loadMillis);
+    }
+
+    private <D> void load(Tab tab, String name, DataLoader<D> loader, PanelFactory<D> factory) {
+        long requestedAt = System.nanoTime();
+        AsyncExecutor.supply(loader::load).whenCompleteAsync((data, error) -> {
+            Node panel = null;
+            Throwable failure = error == null ? null : AsyncExecutor.unwrap(error);
+            if (failure == null) {
+                try {
+                    panel = factory.create(data);
+                } catch (SQLException | RuntimeException ex) {
+                    failure = ex;
+                }
+            }
+            long now = System.nanoTime();
+            long tookMillis = (now - requestedAt) / 1_000_000;
+            if (failure != null) {
+                tab.setContent(new Label("Failed to load " + name + "."));
+                errorHandler.accept("Database Error", "Failed to load " + name + ": " + failure.getMessage());
+                return;
+            }
+            tab.setContent(panel);
+            synchronized (this) {
+                loadMillis.put(name, tookMillis);
+            }
+            LOG.info(String.format("%s loaded in %d ms (%d ms after launch)",
+                    name, tookMillis, (now - startNanos) / 1_000_000));
+        }, Platform::runLater);
+    }
+
+    private static Node placeholder() {
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setMaxSize(60, 60);
+        return new StackPane(spinner);
+    }
+}
@@ -1,7 +1,11 @@
 package view;
 
+import controller.AsyncExecutor;
 import controller.LowStockAlertController;
+import model.LowStockEvent;
 import model.Product;
+import model.ProductRecord;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -9,24 +13,23 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
+// Low-stock products, most urgent to reorder first (see ReorderQueue)
 public class LowStockAlertDialog extends VBox {
 
     private TableView<Product> lowStockTable;
     private LowStockAlertController controller;
     private ObservableList<Product> lowStockList;
-    private ObservableList<Product> acknowledgedList; // To track acknowledged products
 
-    public LowStockAlertDialog() throws SQLException {
+    public LowStockAlertDialog() {
         this.getStyleClass().add("panel");
 
         // Initialize the controller
         controller = new LowStockAlertController(this);
-
-        // Initialize data
-        lowStockList = FXCollections.observableArrayList(controller.fetchLowStockProducts());
-        acknowledgedList = FXCollections.observableArrayList(); // List for acknowledged products
+        lowStockList = FXCollections.observableArrayList();
 
         // Header label
         Label headerLabel = new Label("Low Stock Alert");
@@ -57,52 +60,80 @@ public class LowStockAlertDialog extends VBox {
         // Placeholder message when there are no low-stock items
         lowStockTable.setPlaceholder(new Label("No low-stock products available"));
 
-        // Button to refresh the low stock list
-        Button refreshButton = new Button("Refresh");
-        refreshButton.setOnAction(e -> refreshLowStockList());
-
         // Layout settings
         this.setSpacing(10);
         this.setPadding(new Insets(20));
-        this.getChildren().addAll(headerLabel, lowStockTable, refreshButton);
-
-        // Load initial low-stock data
-        loadLowStockData();
-
-        // Show initial notifications
-        showRealTimeNotifications();
+        this.getChildren().addAll(headerLabel, lowStockTable);
+
+        // Scan for low stock once in the background; from then on the list is updated from stock
+        // change events. Subscribe on the FX thread, where the events are applied, so the
+        // snapshot and the events that follow it line up.
+        AsyncExecutor.run(() -> {
+            controller.startReorderQueue();
+            controller.loadAcknowledgements();
+        }).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                showAlert("Database Error", "Failed to load low stock products: " + AsyncExecutor.unwrap(error).getMessage());
+                return;
+            }
+            try {
+                // Hourly velocity refreshes move many rows at once, and rankOf() needs the list in
+                // score order, so it is sorted again after each one
+                controller.watchReorderRanks(() -> Platform.runLater(() -> lowStockList.sort(byUrgency())));
+                List<ProductRecord> lowStock = controller.watchLowStock(
+                        event -> Platform.runLater(() -> applyLowStockEvent(event)));
+                List<Product> ranked = new ArrayList<>(lowStock.size());
+                for (ProductRecord record : lowStock) {
+                    ranked.add(new Product(record));
+                }
+                ranked.sort(byUrgency());
+                lowStockList.setAll(ranked);
+            } catch (SQLException ex) {
+                showAlert("Database Error", "Failed to load low stock products: " + ex.getMessage());
+            }
+        }, Platform::runLater);
     }
 
-    private void loadLowStockData() {
-        try {
-            List<Product> lowStockProducts = controller.fetchLowStockProducts();
-            lowStockList.setAll(lowStockProducts);
-        } catch (SQLException e) {
-            showAlert("Database Error", "Failed to load low stock products: " + e.getMessage());
+    // Move the one affected row to its new rank; the reorder queue has already seen the event,
+    // since it subscribed first
+    private void applyLowStockEvent(LowStockEvent event) {
+        ProductRecord record = event.product();
+        int index = indexOf(record.productId());
+        if (index >= 0) {
+            lowStockList.remove(index);
+        }
+        if (event.type() != LowStockEvent.Type.LEFT) {
+            lowStockList.add(rankOf(controller.reorderScore(record.productId())), new Product(record));
         }
     }
 
-    private void refreshLowStockList() {
-        loadLowStockData();
+    // Highest reorder score first
+    private Comparator<Product> byUrgency() {
+        return Comparator.comparingDouble((Product product) -> controller.reorderScore(product.getProductId())).reversed();
     }
 
-    // Method to show real-time notification pop-ups
-    private void showRealTimeNotifications() {
-        for (Product product : lowStockList) {
-            if (!acknowledgedList.contains(product)) {
-                showNotification(product);
+    // Binary search for where a row with this score belongs in the ranked list
+    private int rankOf(double score) {
+        int low = 0;
+        int high = lowStockList.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (controller.reorderScore(lowStockList.get(middle).getProductId()) >= score) {
+                low = middle + 1;
+            } else {
+                high = middle;
             }
         }
+        return low;
     }
 
-    // Show notification pop-up for a low-stock product
-    private void showNotification(Product product) {
-        Alert notification = new Alert(Alert.AlertType.INFORMATION);
-        notification.setTitle("Low Stock Alert");
-        notification.setHeaderText(null);
-        notification.setContentText("Low stock alert for: " + product.getName() +
-                " - Stock Level: " + product.getQuantityInStock());
-        notification.showAndWait();
+    private int indexOf(int product_id) {
+        for (int i = 0; i < lowStockList.size(); i++) {
+            if (lowStockList.get(i).getProductId() == product_id) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     // Creates a cell with a checkbox for acknowledgment
@@ -113,11 +144,17 @@ public class LowStockAlertDialog extends VBox {
             {
                 acknowledgeCheckBox.setOnAction(e -> {
                     Product product = getTableView().getItems().get(getIndex());
-                    if (acknowledgeCheckBox.isSelected()) {
-                        acknowledgedList.add(product);
-                    } else {
-                        acknowledgedList.remove(product);
-                    }
+                    // Stored in the database so the acknowledgement outlives this session
+                    int product_id = product.getProductId();
+                    (acknowledgeCheckBox.isSelected()
+                            ? controller.acknowledgeAsync(product_id)
+                            : controller.clearAcknowledgementAsync(product_id))
+                            .whenCompleteAsync((ignored, error) -> {
+                                if (error != null) {
+                                    acknowledgeCheckBox.setSelected(controller.isAcknowledged(product_id));
+                                    showAlert("Database Error", "Failed to save acknowledgement: " + AsyncExecutor.unwrap(error).getMessage());
+                                }
+                            }, Platform::runLater);
                 });
             }
 
@@ -129,7 +166,7 @@ public class LowStockAlertDialog extends VBox {
                 } else {
                     setGraphic(acknowledgeCheckBox);
                     Product product = getTableView().getItems().get(getIndex());
-                    acknowledgeCheckBox.setSelected(acknowledgedList.contains(product));
+                    acknowledgeCheckBox.setSelected(controller.isAcknowledged(product.getProductId()));
                 }
             }
         };
@@ -0,0 +1,156 @@
+package view;
+
+import controller.AsyncExecutor;
+import controller.LowStockAlertController;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.stage.Popup;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.LowStockEvent;
+import model.ProductRecord;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Low-stock notifications as one non-modal toast instead of a modal dialog per product. Products
+// that run low are collected for COALESCE_WINDOW and then shown together, and toasts are at least
+// MIN_INTERVAL apart; anything arriving in between joins the next one. Acknowledged products are
+// left out, and a product's acknowledgement is cleared once it is restocked.
+// All state is touched on the FX thread only.
+public class LowStockNotifier {
+    private static final Logger LOG = Logger.getLogger(LowStockNotifier.class.getName());
+    private static final Duration COALESCE_WINDOW = Duration.seconds(2);
+    private static final Duration MIN_INTERVAL = Duration.seconds(30);
+    private static final Duration TOAST_DURATION = Duration.seconds(8);
+    // Products named in a toast; the rest are summarised as "and N more"
+    private static final int MAX_LISTED = 5;
+
+    private final Stage owner;
+    private final LowStockAlertController controller = new LowStockAlertController();
+    // Products waiting for the next toast; ranked by urgency when the toast is shown
+    private final Map<Integer, ProductRecord> pending = new LinkedHashMap<>();
+    private final PauseTransition flushDelay = new PauseTransition();
+    private final PauseTransition hideDelay = new PauseTransition(TOAST_DURATION);
+    private final Popup toast = new Popup();
+    private final Label toastLabel = new Label();
+    private long lastShownMillis;
+
+    public LowStockNotifier(Stage owner) {
+        this.owner = owner;
+        flushDelay.setOnFinished(e -> flush());
+        hideDelay.setOnFinished(e -> toast.hide());
+
+        VBox content = new VBox(toastLabel);
+        content.setPadding(new Insets(12, 16, 12, 16));
+        content.getStyleClass().add("toast");
+        content.setOnMouseClicked(e -> toast.hide());
+        toastLabel.getStyleClass().add("toast-label");
+        toastLabel.setWrapText(true);
+        toastLabel.setMaxWidth(320);
+        toast.getContent().add(content);
+    }
+
+    // Load the low-stock state and acknowledgements in the background, then queue one toast for
+    // every unacknowledged low-stock product and keep listening for changes
+    public void start() {
+        AsyncExecutor.run(() -> {
+            controller.startReorderQueue();
+            controller.loadAcknowledgements();
+        }).whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                LOG.log(Level.WARNING, "Low-stock notifications unavailable", AsyncExecutor.unwrap(error));
+                return;
+            }
+            try {
+                List<ProductRecord> lowStock = controller.watchLowStock(event -> Platform.runLater(() -> onEvent(event)));
+                for (ProductRecord product : lowStock) {
+                    if (!controller.isAcknowledged(product.productId())) {
+                        pending.put(product.productId(), product);
+                    }
+                }
+                schedule();
+            } catch (SQLException ex) {
+                LOG.log(Level.WARNING, "Low-stock notifications unavailable", ex);
+            }
+        }, Platform::runLater);
+    }
+
+    private void onEvent(LowStockEvent event) {
+        ProductRecord product = event.product();
+        switch (event.type()) {
+            case ENTERED:
+                if (!controller.isAcknowledged(product.productId())) {
+                    pending.put(product.productId(), product);
+                }
+                break;
+            case CHANGED:
+                pending.computeIfPresent(product.productId(), (id, old) -> product);
+                break;
+            case LEFT:
+                pending.remove(product.productId());
+                controller.clearAcknowledgementAsync(product.productId());
+                break;
+        }
+        schedule();
+    }
+
+    // Start the countdown to the next toast unless one is already running
+    private void schedule() {
+        if (pending.isEmpty() || flushDelay.getStatus() == PauseTransition.Status.RUNNING) {
+            return;
+        }
+        double untilAllowed = lastShownMillis + MIN_INTERVAL.toMillis() - System.currentTimeMillis();
+        flushDelay.setDuration(Duration.millis(Math.max(COALESCE_WINDOW.toMillis(), untilAllowed)));
+        flushDelay.playFromStart();
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        message.append(pending.size() == 1 ? "1 product is" : pending.size() + " products are")
+                .append(" below the reorder level:");
+        // Most urgent first, so the ones cut off by MAX_LISTED are the least pressing
+        List<ProductRecord> ranked = new ArrayList<>(pending.values());
+        ranked.sort(Comparator.comparingDouble((ProductRecord product) -> controller.reorderScore(product.productId())).reversed());
+        int listed = 0;
+        for (ProductRecord product : ranked) {
+            if (listed++ == MAX_LISTED) {
+                message.append("\n... and ").append(pending.size() - MAX_LISTED).append(" more");
+                break;
+            }
+            message.append("\n").append(product.name()).append(" (").append(product.quantityInStock())
+                    .append(" left, reorder at ").append(product.reorderLevel()).append(")");
+        }
+        pending.clear();
+        lastShownMillis = System.currentTimeMillis();
+        show(message.toString());
+    }
+
+    private void show(String message) {
+        if (owner.getScene() == null || !owner.isShowing()) {
+            return;
+        }
+        toastLabel.setText(message);
+        VBox content = (VBox) toast.getContent().get(0);
+        content.getStylesheets().setAll(owner.getScene().getStylesheets());
+        if (!toast.isShowing()) {
+            toast.show(owner);
+        }
+        // Bottom-right corner of the window
+        toast.setX(owner.getX() + owner.getWidth() - content.getWidth() - 24);
+        toast.setY(owner.getY() + owner.getHeight() - content.getHeight() - 24);
+        hideDelay.playFromStart();
+    }
+}
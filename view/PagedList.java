@@ -0,0 +1,223 @@
+package view;
+
+import controller.AsyncExecutor;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+import model.PageSource;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Read-only TableView items for a table too large to hold in memory. Only the row count is
+// read up front; a page of rows is fetched in the background the first time the table asks
+// for one of its rows, the neighbouring pages are prefetched so scrolling stays smooth, and
+// the least recently used pages are dropped once maxPages are held. Rows that are still
+// loading read as null, so cell value factories should be wrapped in whenLoaded().
+// Only touch this list from the FX thread.
+public final class PagedList<T, K> extends ObservableListBase<T> {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_PAGES = 20;
+
+    private PageSource<T, K> source;
+    private final int pageSize;
+    private final BiConsumer<String, String> errorHandler;
+    // Access-ordered, so the eldest entry is always the least recently viewed page
+    private final LinkedHashMap<Integer, List<T>> pages;
+    // Last key of every page read so far (one key per page, kept after the page is evicted),
+    // so the page after it can always be read with a keyset query
+    private final Map<Integer, K> lastKeys = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private int size;
+    // Bumped by refresh() so results of queries started before it are ignored
+    private int generation;
+    private boolean errorReported;
+
+    // errorHandler receives (title, message) on the FX thread when a query fails
+    public PagedList(PageSource<T, K> source, BiConsumer<String, String> errorHandler) {
+        this(source, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, errorHandler);
+    }
+
+    public PagedList(PageSource<T, K> source, int pageSize, int maxPages, BiConsumer<String, String> errorHandler) {
+        if (pageSize < 1 || maxPages < 3) {
+            throw new IllegalArgumentException("Invalid paging: pageSize=" + pageSize + ", maxPages=" + maxPages);
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        this.errorHandler = errorHandler;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+        refresh();
+    }
+
+    // Cell value factory that leaves the cell empty while its row is still loading
+    public static <S, V> Callback<TableColumn.CellDataFeatures<S, V>, ObservableValue<V>> whenLoaded(
+            Function<S, ObservableValue<V>> property) {
+        return cellData -> cellData.getValue() == null ? null : property.apply(cellData.getValue());
+    }
+
+    // Re-read the row count and drop every cached page, e.g. after rows were added or deleted.
+    // The first page is fetched alongside the count so the table repaints in one round trip.
+    public void refresh() {
+        int current = ++generation;
+        pages.clear();
+        lastKeys.clear();
+        loading.clear();
+        errorReported = false;
+        load(0);
+        AsyncExecutor.supply(source::count).whenCompleteAsync((count, error) -> {
+            if (current != generation) {
+                return;
+            }
+            if (error != null) {
+                reportError(error);
+                return;
+            }
+            int oldSize = size;
+            size = count;
+            beginChange();
+            if (oldSize > 0) {
+                nextRemove(0, Collections.nCopies(oldSize, (T) null));
+            }
+            if (size > 0) {
+                nextAdd(0, size);
+            }
+            endChange();
+        }, Platform::runLater);
+    }
+
+    // Read from a different source, e.g. the same table with another filter or sort order
+    public void setSource(PageSource<T, K> source) {
+        this.source = source;
+        refresh();
+    }
+
+    public PageSource<T, K> getSource() {
+        return source;
+    }
+
+    // Swap a loaded row for a fresh copy; returns its index, or -1 if it is not loaded
+    public int replace(T stale, T fresh) {
+        for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+            List<T> rows = entry.getValue();
+            int offset = rows.indexOf(stale);
+            if (offset >= 0) {
+                rows.set(offset, fresh);
+                int index = entry.getKey() * pageSize + offset;
+                if (index < size) {
+                    beginChange();
+                    nextSet(index, stale);
+                    endChange();
+                }
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int page = index / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            load(page);
+            return null;
+        }
+        prefetch(page);
+        int offset = index % pageSize;
+        // A short page means rows were deleted since the count was read
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Only loaded rows are searched; scanning the whole list would fetch every page
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+            int offset = entry.getValue().indexOf(o);
+            if (offset >= 0) {
+                return entry.getKey() * pageSize + offset;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    private void prefetch(int page) {
+        if ((page + 1) * pageSize < size) {
+            load(page + 1);
+        }
+        if (page > 0) {
+            load(page - 1);
+        }
+    }
+
+    private void load(int page) {
+        if (pages.containsKey(page) || !loading.add(page)) {
+            return;
+        }
+        int current = generation;
+        PageSource<T, K> pageSource = source;
+        K after = page == 0 ? null : lastKeys.get(page - 1);
+        boolean keyset = page == 0 || after != null;
+        AsyncExecutor.supply(() -> keyset ? pageSource.fetchAfter(after, pageSize) : pageSource.fetchAt(page * pageSize, pageSize))
+                .whenCompleteAsync((rows, error) -> {
+                    if (current != generation) {
+                        return;
+                    }
+                    loading.remove(page);
+                    if (error != null) {
+                        reportError(error);
+                        return;
+                    }
+                    pages.put(page, rows);
+                    if (!rows.isEmpty()) {
+                        lastKeys.put(page, pageSource.keyOf(rows.get(rows.size() - 1)));
+                    }
+                    int from = page * pageSize;
+                    int to = Math.min(from + pageSize, size);
+                    if (from < to) {
+                        beginChange();
+                        nextReplace(from, to, Collections.nCopies(to - from, (T) null));
+                        endChange();
+                    }
+                }, Platform::runLater);
+    }
+
+    // One alert per refresh; a dead connection would otherwise raise one per page scrolled past
+    private void reportError(Throwable error) {
+        if (!errorReported) {
+            errorReported = true;
+            errorHandler.accept("Database Error", "Failed to load rows: " + AsyncExecutor.unwrap(error).getMessage());
+        }
+    }
+}
@@ -3,8 +3,12 @@ package view;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import controller.AsyncExecutor;
 import controller.ProductController;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -12,22 +16,41 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.GridPane;
+import javafx.util.Duration;
+import model.OptimisticLockException;
+import model.PageKey;
 import model.Product;
+import model.ProductFilter;
+import model.ProductRecord;
+import model.ProductSearchIndex;
 
 public class ProductPanel extends VBox {
+    // Pause in typing before the search box runs its query
+    private static final double SEARCH_DEBOUNCE_MS = 150;
 
     private TableView<Product> productTable;
     private TextField nameField, skuField, quantityField, reorderLevelField, categoryIdField, supplierIdField, batchIdField;
     private Button addButton, updateButton, deleteButton, clearButton;
+    private TextField searchField, filterNameField, filterSkuField, filterCategoryIdField, filterSupplierIdField;
+    private Button filterButton, resetFilterButton;
     private ProductController productController;
-    private ObservableList<Product> productList;
+    private PagedList<Product, PageKey> productList;
+    // Current server-side sort order (a Products column name)
+    private String sortColumn = "product_id";
+    private boolean sortAscending = true;
+    // Search results replace the paged list in the table while the search box is not empty
+    private final ObservableList<Product> searchResults = FXCollections.observableArrayList();
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MS));
+    private CompletableFuture<List<ProductRecord>> pendingSearch;
 
     public ProductPanel() throws SQLException{
         this.getStyleClass().add("panel");  // Assign CSS class to the panel
 
-        // Initialize controller and data
+        // Initialize controller and data; rows are read a page at a time as the table scrolls
         productController = new ProductController();
-        productList = FXCollections.observableArrayList(productController.fetchAllProducts());
+        productList = new PagedList<>(productController.productPages(new ProductFilter()), this::showAlert);
+        // Fill the search index in the background so the first search does not wait for it
+        productController.loadSearchIndexAsync();
 
         // Header label
         Label headerLabel = new Label("Product Management");
@@ -120,37 +143,73 @@ public class ProductPanel extends VBox {
         clearButton.getStyleClass().add("button-del");
 
         buttonBox.getChildren().addAll(addButton, updateButton, deleteButton, clearButton);
+
+        // Filter bar; the filters run in the database, not over the rows already loaded.
+        // The search box answers from an in-memory index as the user types.
+        HBox filterBox = new HBox(10);
+        searchField = new TextField();
+        searchField.setPromptText("Search name or SKU");
+        filterNameField = new TextField();
+        filterNameField.setPromptText("Name starts with");
+        filterSkuField = new TextField();
+        filterSkuField.setPromptText("SKU");
+        filterCategoryIdField = new TextField();
+        filterCategoryIdField.setPromptText("Category ID");
+        filterSupplierIdField = new TextField();
+        filterSupplierIdField.setPromptText("Supplier ID");
+        filterButton = new Button("Filter");
+        resetFilterButton = new Button("Reset");
+
+        searchField.getStyleClass().add("text-field");
+        filterNameField.getStyleClass().add("text-field");
+        filterSkuField.getStyleClass().add("text-field");
+        filterCategoryIdField.getStyleClass().add("text-field");
+        filterSupplierIdField.getStyleClass().add("text-field");
+        filterButton.getStyleClass().add("button");
+        resetFilterButton.getStyleClass().add("button-del");
+
+        filterBox.getChildren().addAll(searchField, filterNameField, filterSkuField, filterCategoryIdField, filterSupplierIdField, filterButton, resetFilterButton);
+
         // Set up TableView to display products
         productTable = new TableView<>();
 
         TableColumn<Product, String> nameColumn = new TableColumn<>("Name");
-        nameColumn.setCellValueFactory(cellData -> cellData.getValue().nameProperty());
+        nameColumn.setCellValueFactory(PagedList.whenLoaded(product -> product.nameProperty()));
         nameColumn.setPrefWidth(150);
 
         TableColumn<Product, String> skuColumn = new TableColumn<>("SKU");
-        skuColumn.setCellValueFactory(cellData -> cellData.getValue().skuProperty());
+        skuColumn.setCellValueFactory(PagedList.whenLoaded(product -> product.skuProperty()));
         skuColumn.setPrefWidth(100);
 
         TableColumn<Product, Integer> quantityColumn = new TableColumn<>("Quantity");
-        quantityColumn.setCellValueFactory(cellData -> cellData.getValue().quantityInStockProperty().asObject());
+        quantityColumn.setCellValueFactory(PagedList.whenLoaded(product -> product.quantityInStockProperty().asObject()));
         quantityColumn.setPrefWidth(80);
 
         TableColumn<Product, Integer> reorderLevelColumn = new TableColumn<>("Reorder Level");
-        reorderLevelColumn.setCellValueFactory(cellData -> cellData.getValue().reorderLevelProperty().asObject());
+        reorderLevelColumn.setCellValueFactory(PagedList.whenLoaded(product -> product.reorderLevelProperty().asObject()));
         reorderLevelColumn.setPrefWidth(100);
 
         TableColumn<Product, Integer> categoryIdColumn = new TableColumn<>("Category ID");
-        categoryIdColumn.setCellValueFactory(cellData -> cellData.getValue().categoryIdProperty().asObject());
+        categoryIdColumn.setCellValueFactory(PagedList.whenLoaded(product -> product.categoryIdProperty().asObject()));
         categoryIdColumn.setPrefWidth(100);
 
         TableColumn<Product, Integer> supplierIdColumn = new TableColumn<>("Supplier ID");
-        supplierIdColumn.setCellValueFactory(cellData -> cellData.getValue().supplierIdProperty().asObject());
+        supplierIdColumn.setCellValueFactory(PagedList.whenLoaded(product -> product.supplierIdProperty().asObject()));
         supplierIdColumn.setPrefWidth(100);
 
         TableColumn<Product, Integer> batchIdColumn = new TableColumn<>("Batch ID");
-        batchIdColumn.setCellValueFactory(cellData -> cellData.getValue().batchIdProperty().asObject());
+        batchIdColumn.setCellValueFactory(PagedList.whenLoaded(product -> product.batchIdProperty().asObject()));
         batchIdColumn.setPrefWidth(100);
 
+        // Column -> Products column it sorts by; SKU and batch ID may be empty and are not sortable
+        nameColumn.setUserData("name");
+        skuColumn.setSortable(false);
+        quantityColumn.setUserData("quantity_in_stock");
+        reorderLevelColumn.setUserData("reorder_level");
+        categoryIdColumn.setUserData("category_id");
+        supplierIdColumn.setUserData("supplier_id");
+        batchIdColumn.setSortable(false);
+
         // Add columns to TableView
         productTable.getColumns().setAll(nameColumn, skuColumn, quantityColumn, reorderLevelColumn, categoryIdColumn, supplierIdColumn, batchIdColumn);
         productTable.setItems(productList);
@@ -161,6 +220,28 @@ public class ProductPanel extends VBox {
         // Adjust table resizing policy to avoid extra column
         productTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
+        // Clicking a header re-queries the database in the new order instead of sorting the loaded page.
+        // Only the primary sort column is used.
+        productTable.setSortPolicy(table -> {
+            // Search results are a short in-memory list, so those are sorted in place
+            if (table.getItems() != productList) {
+                return TableView.DEFAULT_SORT_POLICY.call(table);
+            }
+            String column = "product_id";
+            boolean ascending = true;
+            if (!table.getSortOrder().isEmpty()) {
+                TableColumn<Product, ?> primary = table.getSortOrder().get(0);
+                column = (String) primary.getUserData();
+                ascending = primary.getSortType() == TableColumn.SortType.ASCENDING;
+            }
+            if (!column.equals(sortColumn) || ascending != sortAscending) {
+                sortColumn = column;
+                sortAscending = ascending;
+                applyFilter();
+            }
+            return true;
+        });
+
 
         
         //for table 
@@ -207,6 +288,7 @@ deleteButton.setOnAction(e -> {
             try {
                 // Create a new list to store products to delete to avoid modifying the original list
                 List<Product> productsToDelete = new ArrayList<>(selectedProducts);
+                productsToDelete.removeIf(product -> product == null); // rows still loading
 
                 // Iterate over the copy of the selected items and delete each from the database and the productList
                 productsToDelete.forEach(product -> {
@@ -217,8 +299,8 @@ deleteButton.setOnAction(e -> {
                     }
                 });
 
-                // Remove all deleted products from productList in one go
-                productList.removeAll(productsToDelete);
+                // Re-read the table now that rows have gone
+                reloadTable();
 
                 // Clear input fields after deletion
                 clearFields();
@@ -231,6 +313,22 @@ deleteButton.setOnAction(e -> {
 });
        
         clearButton.setOnAction(e -> clearFields());
+
+        filterButton.setOnAction(e -> applyFilter());
+        // Every keystroke restarts the delay, so only the text the user paused on is searched
+        searchDelay.setOnFinished(e -> runSearch());
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+        resetFilterButton.setOnAction(e -> {
+            filterNameField.clear();
+            filterSkuField.clear();
+            filterCategoryIdField.clear();
+            filterSupplierIdField.clear();
+            applyFilter();
+        });
+        filterNameField.setOnAction(e -> applyFilter());
+        filterSkuField.setOnAction(e -> applyFilter());
+        filterCategoryIdField.setOnAction(e -> applyFilter());
+        filterSupplierIdField.setOnAction(e -> applyFilter());
         
         
         
@@ -239,7 +337,7 @@ deleteButton.setOnAction(e -> {
         // Layout adjustments
         this.setSpacing(10);
         this.setPadding(new Insets(20));
-        this.getChildren().addAll(headerLabel, form, buttonBox, productTable);
+        this.getChildren().addAll(headerLabel, form, buttonBox, filterBox, productTable);
 
         // Populate form fields when a row in the TableView is selected
         productTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
@@ -262,7 +360,7 @@ deleteButton.setOnAction(e -> {
             // Create a new Product with all necessary parameters
             Product product = new Product(0, name, categoryId, sku, quantity, reorderLevel, supplierId, batchId);
             productController.addProduct(product); // Add product to database
-            productList.add(product); // Add product to TableView
+            reloadTable(); // Reload the table so the new product shows up
     
             clearFields(); // Clear fields after adding
         } catch (NumberFormatException ex) {
@@ -287,6 +385,9 @@ deleteButton.setOnAction(e -> {
                 productController.updateProduct(selectedProduct);  // Update in database
                 productTable.refresh();  // Refresh TableView
                 clearFields();
+            } catch (OptimisticLockException ex) {
+                reloadProduct(selectedProduct);
+                showAlert("Update Conflict", "This product was changed by another user. The latest values have been loaded; please apply your changes again.");
             } catch (NumberFormatException ex) {
                 showAlert("Invalid Input", "Please enter valid numeric values for Quantity and Reorder Level.");
             }
@@ -299,13 +400,99 @@ deleteButton.setOnAction(e -> {
         Product selectedProduct = productTable.getSelectionModel().getSelectedItem();
         if (selectedProduct != null) {
             productController.deleteProduct(selectedProduct.getProductId());  // Remove from database
-            productList.remove(selectedProduct);  // Remove from TableView
+            reloadTable();  // Reload the table without the deleted row
             clearFields();
         } else {
             showAlert("No Selection", "Please select a product to delete.");
         }
     }
 
+    // Replace a stale row with the latest copy from the database
+    private void reloadProduct(Product staleProduct) throws SQLException {
+        Product latest = productController.fetchProduct(staleProduct.getProductId());
+        if (latest == null) {
+            reloadTable();
+            clearFields();
+            return;
+        }
+        int index;
+        if (productTable.getItems() == productList) {
+            index = productList.replace(staleProduct, latest);
+        } else {
+            index = searchResults.indexOf(staleProduct);
+            if (index >= 0) {
+                searchResults.set(index, latest);
+            }
+        }
+        if (index >= 0) {
+            productTable.getSelectionModel().select(index);
+            populateFields(latest);
+        }
+    }
+
+    // Show the products matching the search box, or the paged table again once it is empty.
+    // Only the newest query's results are shown; an older one still queued is cancelled.
+    private void runSearch() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+            pendingSearch = null;
+        }
+        String query = searchField.getText();
+        if (query == null || query.isBlank()) {
+            if (productTable.getItems() != productList) {
+                productTable.setItems(productList);
+                productTable.sort(); // re-apply a header sort chosen while searching
+            }
+            return;
+        }
+        CompletableFuture<List<ProductRecord>> search = productController.searchProductsAsync(query, ProductSearchIndex.DEFAULT_LIMIT);
+        pendingSearch = search;
+        search.whenCompleteAsync((results, error) -> {
+            if (search != pendingSearch) {
+                return;
+            }
+            pendingSearch = null;
+            if (error != null) {
+                showAlert("Search Error", "Failed to search products: " + AsyncExecutor.unwrap(error).getMessage());
+                return;
+            }
+            List<Product> products = new ArrayList<>(results.size());
+            for (ProductRecord record : results) {
+                products.add(new Product(record));
+            }
+            searchResults.setAll(products);
+            productTable.setItems(searchResults);
+            productTable.sort();
+        }, Platform::runLater);
+    }
+
+    // Reload whatever the table is showing after rows were added or deleted
+    private void reloadTable() {
+        productList.refresh();
+        if (productTable.getItems() != productList) {
+            runSearch();
+        }
+    }
+
+    // Re-query the table with the filter bar and the current sort order
+    private void applyFilter() {
+        try {
+            ProductFilter filter = new ProductFilter()
+                    .namePrefix(filterNameField.getText())
+                    .sku(filterSkuField.getText())
+                    .categoryId(parseOptionalInt(filterCategoryIdField.getText()))
+                    .supplierId(parseOptionalInt(filterSupplierIdField.getText()));
+            filter.sortBy(sortColumn, sortAscending);
+            productList.setSource(productController.productPages(filter));
+        } catch (NumberFormatException ex) {
+            showAlert("Invalid Filter", "Category ID and Supplier ID must be whole numbers.");
+        }
+    }
+
+    private static Integer parseOptionalInt(String text) {
+        return text == null || text.isBlank() ? null : Integer.valueOf(text.trim());
+    }
+
     private void clearFields() {
         nameField.clear();
         skuField.clear();
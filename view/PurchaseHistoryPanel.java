@@ -1,13 +1,17 @@
 package view;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.SQLException;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import model.PageKey;
+import model.PurchaseFilter;
 import model.PurchaseHistory;
 import controller.PurchaseHistoryController;
 
@@ -16,15 +20,20 @@ public class PurchaseHistoryPanel extends VBox {
     private TableView<PurchaseHistory> purchaseTable;
     private TextField productIdField, supplierIdField, purchaseDateField, quantityField, costField;
     private Button addButton, refreshButton;
+    private TextField filterProductIdField, filterSupplierIdField, filterFromDateField, filterToDateField, filterMinCostField, filterMaxCostField;
+    private Button filterButton, resetFilterButton;
     private PurchaseHistoryController purchaseHistoryController;
-    private ObservableList<PurchaseHistory> purchaseList;
+    private PagedList<PurchaseHistory, PageKey> purchaseList;
+    // Current server-side sort order (a Purchase_History column name)
+    private String sortColumn = "purchase_id";
+    private boolean sortAscending = true;
 
     public PurchaseHistoryPanel() throws SQLException {
         this.getStyleClass().add("panel");
 
-        // Initialize controller and data
+        // Initialize controller and data; rows are read a page at a time as the table scrolls
         purchaseHistoryController = new PurchaseHistoryController();
-        purchaseList = FXCollections.observableArrayList(purchaseHistoryController.fetchAllPurchases());
+        purchaseList = new PagedList<>(purchaseHistoryController.purchasePages(new PurchaseFilter()), this::showAlert);
 
         // Header label
         Label headerLabel = new Label("Purchase History");
@@ -93,40 +102,77 @@ public class PurchaseHistoryPanel extends VBox {
 
         buttonBox.getChildren().addAll(addButton, refreshButton);
 
+        // Filter bar; the filters run in the database, not over the rows already loaded
+        HBox filterBox = new HBox(10);
+        filterProductIdField = new TextField();
+        filterProductIdField.setPromptText("Product ID");
+        filterSupplierIdField = new TextField();
+        filterSupplierIdField.setPromptText("Supplier ID");
+        filterFromDateField = new TextField();
+        filterFromDateField.setPromptText("From YYYY-MM-DD");
+        filterToDateField = new TextField();
+        filterToDateField.setPromptText("To YYYY-MM-DD");
+        filterMinCostField = new TextField();
+        filterMinCostField.setPromptText("Min Cost");
+        filterMaxCostField = new TextField();
+        filterMaxCostField.setPromptText("Max Cost");
+        filterButton = new Button("Filter");
+        resetFilterButton = new Button("Reset");
+
+        filterProductIdField.getStyleClass().add("text-field");
+        filterSupplierIdField.getStyleClass().add("text-field");
+        filterFromDateField.getStyleClass().add("text-field");
+        filterToDateField.getStyleClass().add("text-field");
+        filterMinCostField.getStyleClass().add("text-field");
+        filterMaxCostField.getStyleClass().add("text-field");
+        filterButton.getStyleClass().add("button");
+        resetFilterButton.getStyleClass().add("button-del");
+
+        filterBox.getChildren().addAll(filterProductIdField, filterSupplierIdField, filterFromDateField, filterToDateField,
+                filterMinCostField, filterMaxCostField, filterButton, resetFilterButton);
+
         // Set up TableView to display purchase history
         purchaseTable = new TableView<>();
 
         TableColumn<PurchaseHistory, Integer> purchaseIdColumn = new TableColumn<>("Purchase ID");
-        purchaseIdColumn.setCellValueFactory(cellData -> cellData.getValue().purchaseIdProperty().asObject());
+        purchaseIdColumn.setCellValueFactory(PagedList.whenLoaded(purchase -> purchase.purchaseIdProperty().asObject()));
         purchaseIdColumn.setPrefWidth(100);
 
         TableColumn<PurchaseHistory, Integer> productIdColumn = new TableColumn<>("Product ID");
-        productIdColumn.setCellValueFactory(cellData -> cellData.getValue().productIdProperty().asObject());
+        productIdColumn.setCellValueFactory(PagedList.whenLoaded(purchase -> purchase.productIdProperty().asObject()));
         productIdColumn.setPrefWidth(100);
 
         TableColumn<PurchaseHistory, Integer> supplierIdColumn = new TableColumn<>("Supplier ID");
-        supplierIdColumn.setCellValueFactory(cellData -> cellData.getValue().supplierIdProperty().asObject());
+        supplierIdColumn.setCellValueFactory(PagedList.whenLoaded(purchase -> purchase.supplierIdProperty().asObject()));
         supplierIdColumn.setPrefWidth(100);
 
-        TableColumn<PurchaseHistory, String> purchaseDateColumn = new TableColumn<>("Purchase Date");
-        purchaseDateColumn.setCellValueFactory(cellData -> cellData.getValue().purchaseDateProperty());
+        TableColumn<PurchaseHistory, LocalDate> purchaseDateColumn = new TableColumn<>("Purchase Date");
+        purchaseDateColumn.setCellValueFactory(PagedList.whenLoaded(purchase -> purchase.purchaseDateProperty()));
         purchaseDateColumn.setPrefWidth(120);
 
         TableColumn<PurchaseHistory, Integer> quantityColumn = new TableColumn<>("Quantity");
-        quantityColumn.setCellValueFactory(cellData -> cellData.getValue().quantityProperty().asObject());
+        quantityColumn.setCellValueFactory(PagedList.whenLoaded(purchase -> purchase.quantityProperty().asObject()));
         quantityColumn.setPrefWidth(80);
 
-        TableColumn<PurchaseHistory, Double> costColumn = new TableColumn<>("Cost");
-        costColumn.setCellValueFactory(cellData -> cellData.getValue().costProperty().asObject());
+        TableColumn<PurchaseHistory, BigDecimal> costColumn = new TableColumn<>("Cost");
+        costColumn.setCellValueFactory(PagedList.whenLoaded(purchase -> purchase.costProperty()));
         costColumn.setPrefWidth(100);
 
+        // Column -> Purchase_History column it sorts by
+        purchaseIdColumn.setUserData("purchase_id");
+        productIdColumn.setUserData("product_id");
+        supplierIdColumn.setUserData("supplier_id");
+        purchaseDateColumn.setUserData("purchase_date");
+        quantityColumn.setUserData("quantity");
+        costColumn.setUserData("cost");
+
         // Center-align the columns
         purchaseIdColumn.setCellFactory(column -> createCenterAlignedIntegerCell());
         productIdColumn.setCellFactory(column -> createCenterAlignedIntegerCell());
         supplierIdColumn.setCellFactory(column -> createCenterAlignedIntegerCell());
-        purchaseDateColumn.setCellFactory(column -> createCenterAlignedStringCell());
+        purchaseDateColumn.setCellFactory(column -> createCenterAlignedDateCell());
         quantityColumn.setCellFactory(column -> createCenterAlignedIntegerCell());
-        costColumn.setCellFactory(column -> createCenterAlignedDoubleCell());
+        costColumn.setCellFactory(column -> createCenterAlignedMoneyCell());
 
         // Add columns to TableView
         purchaseTable.getColumns().setAll(purchaseIdColumn, productIdColumn, supplierIdColumn, purchaseDateColumn, quantityColumn, costColumn);
@@ -137,29 +183,68 @@ public class PurchaseHistoryPanel extends VBox {
         purchaseTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         purchaseTable.getStyleClass().add("table-view");
 
+        // Clicking a header re-queries the database in the new order instead of sorting the loaded page.
+        // Only the primary sort column is used.
+        purchaseTable.setSortPolicy(table -> {
+            String column = "purchase_id";
+            boolean ascending = true;
+            if (!table.getSortOrder().isEmpty()) {
+                TableColumn<PurchaseHistory, ?> primary = table.getSortOrder().get(0);
+                column = (String) primary.getUserData();
+                ascending = primary.getSortType() == TableColumn.SortType.ASCENDING;
+            }
+            if (!column.equals(sortColumn) || ascending != sortAscending) {
+                sortColumn = column;
+                sortAscending = ascending;
+                applyFilter();
+            }
+            return true;
+        });
+
         // Add event handlers
         addButton.setOnAction(e -> {
             try {
                 addPurchase();
             } catch (SQLException ex) {
                 showAlert("Database Error", "Failed to add purchase: " + ex.getMessage());
+            } catch (NumberFormatException ex) {
+                showAlert("Invalid Input", "IDs and quantity must be whole numbers and cost must be an amount with at most 2 decimals.");
+            } catch (DateTimeParseException ex) {
+                showAlert("Invalid Input", "Purchase date must be in YYYY-MM-DD format.");
             }
         });
 
         refreshButton.setOnAction(e -> refreshPurchaseList());
 
+        filterButton.setOnAction(e -> applyFilter());
+        resetFilterButton.setOnAction(e -> {
+            filterProductIdField.clear();
+            filterSupplierIdField.clear();
+            filterFromDateField.clear();
+            filterToDateField.clear();
+            filterMinCostField.clear();
+            filterMaxCostField.clear();
+            applyFilter();
+        });
+        filterProductIdField.setOnAction(e -> applyFilter());
+        filterSupplierIdField.setOnAction(e -> applyFilter());
+        filterFromDateField.setOnAction(e -> applyFilter());
+        filterToDateField.setOnAction(e -> applyFilter());
+        filterMinCostField.setOnAction(e -> applyFilter());
+        filterMaxCostField.setOnAction(e -> applyFilter());
+
         // Layout adjustments
         this.setSpacing(10);
         this.setPadding(new Insets(20));
-        this.getChildren().addAll(headerLabel, form, buttonBox, purchaseTable);
+        this.getChildren().addAll(headerLabel, form, buttonBox, filterBox, purchaseTable);
     }
 
-    private TableCell<PurchaseHistory, String> createCenterAlignedStringCell() {
+    private TableCell<PurchaseHistory, LocalDate> createCenterAlignedDateCell() {
         return new TableCell<>() {
             @Override
-            protected void updateItem(String item, boolean empty) {
+            protected void updateItem(LocalDate item, boolean empty) {
                 super.updateItem(item, empty);
-                setText(empty ? null : item);
+                setText(empty || item == null ? null : item.toString());
                 setStyle("-fx-alignment: CENTER;");
             }
         };
@@ -170,18 +255,18 @@ public class PurchaseHistoryPanel extends VBox {
             @Override
             protected void updateItem(Integer item, boolean empty) {
                 super.updateItem(item, empty);
-                setText(empty ? null : item.toString());
+                setText(empty || item == null ? null : item.toString());
                 setStyle("-fx-alignment: CENTER;");
             }
         };
     }
 
-    private TableCell<PurchaseHistory, Double> createCenterAlignedDoubleCell() {
+    private TableCell<PurchaseHistory, BigDecimal> createCenterAlignedMoneyCell() {
         return new TableCell<>() {
             @Override
-            protected void updateItem(Double item, boolean empty) {
+            protected void updateItem(BigDecimal item, boolean empty) {
                 super.updateItem(item, empty);
-                setText(empty ? null : String.format("%.2f", item));
+                setText(empty || item == null ? null : item.setScale(2, RoundingMode.HALF_UP).toPlainString());
                 setStyle("-fx-alignment: CENTER;");
             }
         };
@@ -190,21 +275,56 @@ public class PurchaseHistoryPanel extends VBox {
     private void addPurchase() throws SQLException {
         int productId = Integer.parseInt(productIdField.getText());
         int supplierId = Integer.parseInt(supplierIdField.getText());
-        String purchaseDate = purchaseDateField.getText();
+        LocalDate purchaseDate = LocalDate.parse(purchaseDateField.getText().trim());
         int quantity = Integer.parseInt(quantityField.getText());
-        double cost = Double.parseDouble(costField.getText());
+        BigDecimal cost = parseAmount(costField.getText());
 
         PurchaseHistory purchase = new PurchaseHistory(0, productId, supplierId, purchaseDate, quantity, cost);
         purchaseHistoryController.addPurchase(purchase);
-        purchaseList.add(purchase);
+        purchaseList.refresh();
         clearFields();
     }
 
+    // Re-read the row count and drop cached pages; visible rows reload in the background
     private void refreshPurchaseList() {
+        purchaseList.refresh();
+    }
+
+    // Re-query the table with the filter bar and the current sort order
+    private void applyFilter() {
+        try {
+            PurchaseFilter filter = new PurchaseFilter()
+                    .productId(parseOptionalInt(filterProductIdField.getText()))
+                    .supplierId(parseOptionalInt(filterSupplierIdField.getText()))
+                    .purchaseDateBetween(parseOptionalDate(filterFromDateField.getText()), parseOptionalDate(filterToDateField.getText()))
+                    .costBetween(parseOptionalAmount(filterMinCostField.getText()), parseOptionalAmount(filterMaxCostField.getText()));
+            filter.sortBy(sortColumn, sortAscending);
+            purchaseList.setSource(purchaseHistoryController.purchasePages(filter));
+        } catch (NumberFormatException ex) {
+            showAlert("Invalid Filter", "Product ID and Supplier ID must be whole numbers and costs must be numbers.");
+        } catch (DateTimeParseException ex) {
+            showAlert("Invalid Filter", "Dates must be in YYYY-MM-DD format.");
+        }
+    }
+
+    private static Integer parseOptionalInt(String text) {
+        return text == null || text.isBlank() ? null : Integer.valueOf(text.trim());
+    }
+
+    private static BigDecimal parseOptionalAmount(String text) {
+        return text == null || text.isBlank() ? null : parseAmount(text);
+    }
+
+    private static LocalDate parseOptionalDate(String text) {
+        return text == null || text.isBlank() ? null : LocalDate.parse(text.trim());
+    }
+
+    // An exact amount in cents; more than 2 decimals is rejected rather than silently rounded
+    private static BigDecimal parseAmount(String text) {
         try {
-            purchaseList.setAll(purchaseHistoryController.fetchAllPurchases());
-        } catch (SQLException ex) {
-            showAlert("Database Error", "Failed to refresh purchase history: " + ex.getMessage());
+            return new BigDecimal(text.trim()).setScale(2, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("More than 2 decimals: " + text);
         }
     }
 
@@ -1,6 +1,7 @@
 package view;
 
 import java.sql.SQLException;
+import java.util.List;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -8,6 +9,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import model.OptimisticLockException;
 import model.Supplier;
 import controller.SupplierController;
 
@@ -19,12 +21,13 @@ public class SupplierPanel extends VBox {
     private SupplierController supplierController;
     private ObservableList<Supplier> supplierList;
 
-    public SupplierPanel() throws SQLException {
+    // Built on the FX thread from suppliers read beforehand (see LazyTabLoader)
+    public SupplierPanel(List<Supplier> suppliers) {
         this.getStyleClass().add("panel");
 
         // Initialize controller and data
         supplierController = new SupplierController();
-        supplierList = FXCollections.observableArrayList(supplierController.fetchAllSuppliers());
+        supplierList = FXCollections.observableArrayList(suppliers);
 
         // Header label
         Label headerLabel = new Label("Supplier Management");
@@ -226,7 +229,13 @@ public class SupplierPanel extends VBox {
             selectedSupplier.setName(nameField.getText());
             selectedSupplier.setContactInfo(contactField.getText());
             selectedSupplier.setAddress(addressField.getText());
-            supplierController.updateSupplier(selectedSupplier);
+            try {
+                supplierController.updateSupplier(selectedSupplier);
+            } catch (OptimisticLockException ex) {
+                reloadSupplier(selectedSupplier);
+                showAlert("Update Conflict", "This supplier was changed by another user. The latest values have been loaded; please apply your changes again.");
+                return;
+            }
             supplierTable.refresh();
             clearFields();
         } else {
@@ -234,6 +243,20 @@ public class SupplierPanel extends VBox {
         }
     }
 
+    // Replace a stale row with the latest copy from the database
+    private void reloadSupplier(Supplier staleSupplier) throws SQLException {
+        Supplier latest = supplierController.fetchSupplier(staleSupplier.getSupplierId());
+        int index = supplierList.indexOf(staleSupplier);
+        if (latest == null) {
+            supplierList.remove(staleSupplier);
+            clearFields();
+        } else if (index >= 0) {
+            supplierList.set(index, latest);
+            supplierTable.getSelectionModel().select(index);
+            populateFields(latest);
+        }
+    }
+
     private void clearFields() {
         idField.clear();
         nameField.clear();